@@ -1,38 +1,80 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.ErrorResponse;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ErrorHandler {
+    private final MeterRegistry meterRegistry;
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final ValidationException e) {
+        count(e, HttpStatus.BAD_REQUEST);
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleMethodArgumentTypeMismatchException(final MethodArgumentTypeMismatchException e) {
+        count(e, HttpStatus.BAD_REQUEST);
+        return new ErrorResponse("Некорректное значение параметра " + e.getName());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleAlreadyExistException(final AlreadyExistsException e) {
+        count(e, HttpStatus.BAD_REQUEST);
         return new ErrorResponse(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleDoesNotExistException(final DoesNotExistsException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceOverloadedException(final ServiceOverloadedException e) {
+        count(e, HttpStatus.SERVICE_UNAVAILABLE);
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleCannotCreateTransactionException(
+            final CannotCreateTransactionException e) {
+        if (NestedExceptionUtils.getMostSpecificCause(e) instanceof ServiceOverloadedException overloaded) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(handleServiceOverloadedException(overloaded));
+        }
+        return ResponseEntity.internalServerError().body(handleThrowable(e));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable e) {
+        count(e, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ErrorResponse("Произошла непредвиденная ошибка.");
     }
+
+    private void count(Throwable e, HttpStatus status) {
+        meterRegistry.counter("filmorate.errors", "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
 }
\ No newline at end of file
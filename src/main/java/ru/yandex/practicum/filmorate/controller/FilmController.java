@@ -1,13 +1,24 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
 
 @RestController
@@ -16,12 +27,63 @@ import java.util.*;
 @RequiredArgsConstructor
 public class FilmController {
     private final FilmService service;
+    private final ObjectMapper objectMapper;
 
+    @Value("${filmorate.export.timeout}")
+    private Duration exportTimeout;
+    @Value("${filmorate.pagination.default-limit}")
+    private int defaultPageLimit;
+
+    /**
+     * Без параметров возвращает весь список, как и раньше. Постранично, с заголовком X-Next-Cursor, список
+     * отдаётся, только если передан {@code after} или {@code limit}.
+     */
     @GetMapping
+    public ResponseEntity<List<Film>> findPage(@RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(service.findAll());
+        }
+
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return CursorPages.toResponse(service.findPage(after, pageLimit), pageLimit, Film::getId);
+    }
+
+    @GetMapping(params = "all=true")
     public List<Film> findAll() {
         return service.findAll();
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Film>> findByIds(@RequestParam List<Integer> ids) {
+        return MultiGets.toResponse(ids, service.findByIds(ids), Film::getId);
+    }
+
+    @GetMapping(params = {"all", "ids"})
+    public List<Film> findAllAndByIds() {
+        throw new ValidationException("Параметры all и ids нельзя передавать вместе");
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportAll(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(response.getOutputStream())) {
+                service.exportAll(film -> {
+                    try {
+                        writer.write(film);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
     @GetMapping("/{id}")
     public Film findById(@PathVariable Integer id) {
         return service.findById(id);
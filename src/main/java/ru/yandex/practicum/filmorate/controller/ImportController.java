@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.ImportService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+@Slf4j
+@RequiredArgsConstructor
+public class ImportController {
+    private final ImportService service;
+
+    @PostMapping(value = "/films", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFilms(InputStream body) {
+        return service.importFilms(body);
+    }
+
+    @PostMapping(value = "/users", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importUsers(InputStream body) {
+        return service.importUsers(body);
+    }
+
+    @PostMapping(value = "/likes", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importLikes(InputStream body) {
+        return service.importLikes(body);
+    }
+
+    @PostMapping(value = "/friends", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importFriendships(InputStream body) {
+        return service.importFriendships(body);
+    }
+}
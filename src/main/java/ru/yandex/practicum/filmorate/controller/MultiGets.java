@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class MultiGets {
+    static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+
+    private MultiGets() {
+    }
+
+    static <T> ResponseEntity<List<T>> toResponse(Collection<Integer> ids, List<T> found,
+                                                  Function<T, Integer> idExtractor) {
+        Set<Integer> missing = new LinkedHashSet<>(ids);
+        for (T obj : found) {
+            missing.remove(idExtractor.apply(obj));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!missing.isEmpty()) {
+            response.header(MISSING_IDS_HEADER, missing.stream().map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        return response.body(found);
+    }
+}
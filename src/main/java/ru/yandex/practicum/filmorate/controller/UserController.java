@@ -3,7 +3,10 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -16,14 +19,44 @@ import java.util.*;
 public class UserController {
     private final UserService service;
 
+    @Value("${filmorate.pagination.default-limit}")
+    private int defaultPageLimit;
+
+    /**
+     * Без параметров возвращает весь список, как и раньше. Постранично, с заголовком X-Next-Cursor, список
+     * отдаётся, только если передан {@code after} или {@code limit}.
+     */
     @GetMapping
+    public ResponseEntity<List<User>> findPage(@RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(service.findAll());
+        }
+
+        int pageLimit = limit == null ? defaultPageLimit : limit;
+        return CursorPages.toResponse(service.findPage(after, pageLimit), pageLimit, User::getId);
+    }
+
+    @GetMapping(params = "all=true")
     public List<User> findAll() {
         return service.findAll();
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<User>> findByIds(@RequestParam List<Integer> ids) {
+        return MultiGets.toResponse(ids, service.findByIds(ids), User::getId);
+    }
+
+    @GetMapping(params = {"all", "ids"})
+    public List<User> findAllAndByIds() {
+        throw new ValidationException("Параметры all и ids нельзя передавать вместе");
+    }
+
     @GetMapping("/{id}/friends")
-    public List<User> findUserFriends(@PathVariable Integer id) {
-        return service.findUserFriends(id);
+    public ResponseEntity<List<User>> findUserFriends(@PathVariable Integer id,
+            @RequestParam(required = false) Integer after, @RequestParam(required = false) Integer limit) {
+        List<User> friends = service.findUserFriends(id, after, limit);
+        return limit == null ? ResponseEntity.ok(friends) : CursorPages.toResponse(friends, limit, User::getId);
     }
 
     @GetMapping("/{id}")
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.dao;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GenreDbStorage {
@@ -10,9 +11,15 @@ public interface GenreDbStorage {
 
     Genre findById(int id);
 
+    boolean existsById(int id);
+
+    void invalidate();
+
     List<Genre> findByFilmId(int filmId);
 
     void addGenreToTheFilm(int filmId, List<Genre> genreList);
 
+    void addGenresToFilms(Collection<Film> films);
+
     void updateFilmGenre(Film film);
 }
\ No newline at end of file
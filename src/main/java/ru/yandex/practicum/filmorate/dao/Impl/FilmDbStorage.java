@@ -2,52 +2,128 @@ package ru.yandex.practicum.filmorate.dao.Impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.ParallelQueries;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.mappers.FilmRowMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.Storage;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Component
+@Profile("!inmemory")
 @RequiredArgsConstructor
 @Slf4j
-public class FilmDbStorage implements Storage<Film> {
+public class FilmDbStorage implements FilmStorage {
     private final JdbcTemplate jdbcTemplate;
     private final GenreDbStorage genreDbStorage;
     private final FilmRowMapper filmRowMapper;
+    private final ParallelQueries parallelQueries;
+
+    @Value("${filmorate.export.fetch-size}")
+    private int exportFetchSize;
+
+    @Value("${filmorate.jdbc.batch-size}")
+    private int batchSize;
+
+    private static final String INSERT_FILM = "INSERT INTO films (name, description, mpa_id, release_date, duration)" +
+            " VALUES (?, ?, ?, ?, ?)";
+    private static final String FIND_FILMS = "SELECT f.* FROM films AS f";
+    private static final String FIND_FILM_GENRES = "SELECT film_id, genre_id FROM film_genres";
+    private static final String FIND_FILM_LIKES = "SELECT film_id, user_id FROM likes";
+    private static final String BY_FILM_IDS = " WHERE film_id = ANY(?)";
+    private static final String FIND_POPULAR = FIND_FILMS + " ORDER BY f.like_count DESC, f.film_id LIMIT ?";
+    private static final String MERGE_LIKE = "MERGE INTO likes AS l USING (VALUES (?, ?)) AS v (film_id, user_id)" +
+            " ON l.film_id = v.film_id AND l.user_id = v.user_id" +
+            " WHEN NOT MATCHED THEN INSERT (film_id, user_id) VALUES (v.film_id, v.user_id)";
+    private static final String UPDATE_LIKE_COUNT = "UPDATE films SET like_count = like_count + ? WHERE film_id = ?";
+    private static final String RECONCILE_LIKE_COUNTS = "UPDATE films AS f" +
+            " SET like_count = (SELECT COUNT(*) FROM likes AS l WHERE l.film_id = f.film_id)" +
+            " WHERE like_count <> (SELECT COUNT(*) FROM likes AS l WHERE l.film_id = f.film_id)";
 
     @Override
     public List<Film> findAll() {
-        String films = "SELECT * FROM films";
-        return jdbcTemplate.query(films, filmRowMapper);
+        List<Film> films = jdbcTemplate.query(FIND_FILMS + " ORDER BY f.film_id", filmRowMapper);
+        return fillGenresAndLikes(films, FIND_FILM_GENRES, FIND_FILM_LIKES);
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        String sql = FIND_FILMS + " WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?";
+        List<Film> films = jdbcTemplate.query(sql, filmRowMapper, afterId, limit);
+        return fillGenresAndLikes(films);
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("films")
-                .usingGeneratedKeyColumns("film_id");
-        int id = simpleJdbcInsert.executeAndReturnKey(filmToRow(film)).intValue();
-        film.setId(id);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_FILM, new String[]{"film_id"});
+            setFilmValues(ps, film);
+            return ps;
+        }, keyHolder);
+        film.setId(keyHolder.getKeyAs(Integer.class));
+
+        genreDbStorage.addGenresToFilms(List.of(film));
+
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        for (int from = 0; from < films.size(); from += batchSize) {
+            List<Film> batch = films.subList(from, Math.min(from + batchSize, films.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_FILM, new String[]{"film_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            setFilmValues(ps, batch.get(i));
+                        }
 
-        List<Genre> filmGenre = new ArrayList<>(film.getGenres());
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
 
-        if (filmGenre.size() != 0) {
-            genreDbStorage.addGenreToTheFilm(id, filmGenre);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            }
         }
 
-        return film;
+        genreDbStorage.addGenresToFilms(films);
+
+        return films;
     }
 
     @Override
+    @Transactional
     public Film update(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, mpa_id = ?, release_date = ?, duration = ?" +
                 " WHERE film_id = ?";
@@ -64,51 +140,250 @@ public class FilmDbStorage implements Storage<Film> {
 
     @Override
     public Film findById(int id) {
+        Film film;
         try {
-            String sql = "SELECT * FROM films WHERE film_id = ?";
-            Film film = jdbcTemplate.queryForObject(sql, filmRowMapper, id);
-
-            if (film == null) {
-                throw new UnexpectedException("Случилась непредвиденная ошибка - передан null");
-            }
-
-            return film;
+            film = jdbcTemplate.queryForObject(FIND_FILMS + " WHERE f.film_id = ?", filmRowMapper, id);
         } catch (EmptyResultDataAccessException e) {
             throw new DoesNotExistsException("Фильм с id " + id + " не найден");
         }
+        if (film == null) {
+            throw new UnexpectedException("Случилась непредвиденная ошибка - передан null");
+        }
+
+        ParallelQueries.Subquery<List<Genre>> genres = parallelQueries.fork(() -> jdbcTemplate.query(
+                FIND_FILM_GENRES + " WHERE film_id = ?",
+                (rs, rowNum) -> genreDbStorage.findById(rs.getInt("genre_id")), id));
+        ParallelQueries.Subquery<IntSet> likes = parallelQueries.fork(() -> new IntSet(jdbcTemplate.query(
+                FIND_FILM_LIKES + " WHERE film_id = ?", (rs, rowNum) -> rs.getInt("user_id"), id)));
+
+        film.getGenres().addAll(genres.join());
+        film.setLikes(likes.join());
+        return film;
     }
 
     @Override
-    public Film add(int filmId, int userId) {
-        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        int update = jdbcTemplate.update(sql, filmId, userId);
+    public boolean existsById(int id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM films WHERE film_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
 
-        if (update == 0) {
-            throw new UnexpectedException("Произошла непредвиденная ошибка при обновлении списка лайков");
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        String sql = "SELECT film_id FROM films WHERE film_id = ANY(?)";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Integer.class, (Object) ids.toArray(Integer[]::new)));
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        List<Film> films = jdbcTemplate.query(FIND_POPULAR, filmRowMapper, count);
+        return fillGenresAndLikes(films);
+    }
+
+    @Override
+    public List<Film> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String sql = FIND_FILMS + " WHERE f.film_id = ANY(?)";
+        Map<Integer, Film> filmsById = new HashMap<>();
+        for (Film film : jdbcTemplate.query(sql, filmRowMapper, (Object) ids.toArray(Integer[]::new))) {
+            filmsById.put(film.getId(), film);
+        }
+
+        List<Film> films = new ArrayList<>();
+        for (Integer id : ids) {
+            Film film = filmsById.get(id);
+            if (film != null) {
+                films.add(film);
+            }
         }
 
-        return update(findById(filmId));
+        return fillGenresAndLikes(films);
+    }
+
+    @Override
+    public boolean hasLike(int filmId, int userId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, filmId, userId));
     }
 
     @Override
-    public Film remove(int filmId, int userId) {
+    @Transactional
+    public Map<Integer, Integer> addLikes(List<Like> likes) {
+        Map<Integer, Integer> added = writeLikes(MERGE_LIKE, likes);
+        adjustLikeCounts(added, 1);
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Integer> removeLikes(List<Like> likes) {
+        Map<Integer, Integer> removed = writeLikes("DELETE FROM likes WHERE film_id=? AND user_id=?", likes);
+        adjustLikeCounts(removed, -1);
+        return removed;
+    }
+
+    @Override
+    public Map<Integer, Integer> findLikeCounts() {
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, like_count FROM films",
+                (RowCallbackHandler) rs -> likeCounts.put(rs.getInt("film_id"), rs.getInt("like_count")));
+        return likeCounts;
+    }
+
+    @Override
+    public int reconcileLikeCounts() {
+        return jdbcTemplate.update(RECONCILE_LIKE_COUNTS);
+    }
+
+    @Override
+    public void exportAll(Consumer<Film> consumer) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement filmsStatement = openCursor(connection, FIND_FILMS + " ORDER BY f.film_id");
+                 PreparedStatement genresStatement = openCursor(connection,
+                         FIND_FILM_GENRES + " ORDER BY film_id, genre_id");
+                 PreparedStatement likesStatement = openCursor(connection,
+                         FIND_FILM_LIKES + " ORDER BY film_id, user_id");
+                 ResultSet films = filmsStatement.executeQuery();
+                 ResultSet genres = genresStatement.executeQuery();
+                 ResultSet likes = likesStatement.executeQuery()) {
+                boolean hasGenre = genres.next();
+                boolean hasLike = likes.next();
+                int rowNum = 0;
+
+                while (films.next()) {
+                    Film film = filmRowMapper.mapRow(films, rowNum++);
+                    int filmId = film.getId();
+
+                    while (hasGenre && genres.getInt("film_id") <= filmId) {
+                        if (genres.getInt("film_id") == filmId) {
+                            film.getGenres().add(genreDbStorage.findById(genres.getInt("genre_id")));
+                        }
+                        hasGenre = genres.next();
+                    }
+
+                    while (hasLike && likes.getInt("film_id") <= filmId) {
+                        if (likes.getInt("film_id") == filmId) {
+                            film.getLikes().add(likes.getInt("user_id"));
+                        }
+                        hasLike = likes.next();
+                    }
+
+                    consumer.accept(film);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @Transactional
+    public boolean add(int filmId, int userId) {
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(MERGE_LIKE, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+
+        if (inserted == 0) {
+            return false;
+        }
+
+        jdbcTemplate.update(UPDATE_LIKE_COUNT, inserted, filmId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean remove(int filmId, int userId) {
         String sql = "DELETE FROM likes WHERE film_id=? AND user_id=?";
-        int update = jdbcTemplate.update(sql, filmId, userId);
-        if (update == 0) {
-            throw new UnexpectedException("Произошла ошибка при удалении лайка");
+        int deleted = jdbcTemplate.update(sql, filmId, userId);
+        if (deleted == 0) {
+            return false;
+        }
+
+        jdbcTemplate.update(UPDATE_LIKE_COUNT, -deleted, filmId);
+        return true;
+    }
+
+    private Map<Integer, Integer> writeLikes(String sql, List<Like> likes) {
+        int[][] counts = jdbcTemplate.batchUpdate(sql, likes, batchSize, (ps, like) -> {
+            ps.setInt(1, like.getFilmId());
+            ps.setInt(2, like.getUserId());
+        });
+
+        Map<Integer, Integer> changed = new HashMap<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    changed.merge(likes.get(i).getFilmId(), count, Integer::sum);
+                }
+                i++;
+            }
+        }
+        return changed;
+    }
+
+    private void adjustLikeCounts(Map<Integer, Integer> changed, int sign) {
+        jdbcTemplate.batchUpdate(UPDATE_LIKE_COUNT, changed.entrySet(), batchSize, (ps, entry) -> {
+            ps.setInt(1, sign * entry.getValue());
+            ps.setInt(2, entry.getKey());
+        });
+    }
+
+    private List<Film> fillGenresAndLikes(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+
+        Integer[] ids = films.stream().map(Film::getId).toArray(Integer[]::new);
+        return fillGenresAndLikes(films, FIND_FILM_GENRES + BY_FILM_IDS, FIND_FILM_LIKES + BY_FILM_IDS,
+                (Object) ids);
+    }
+
+    private List<Film> fillGenresAndLikes(List<Film> films, String genresSql, String likesSql, Object... args) {
+        if (films.isEmpty()) {
+            return films;
         }
 
-        return update(findById(filmId));
+        Map<Integer, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            filmsById.put(film.getId(), film);
+        }
+
+        jdbcTemplate.query(genresSql, (RowCallbackHandler) rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getGenres().add(genreDbStorage.findById(rs.getInt("genre_id")));
+            }
+        }, args);
+
+        jdbcTemplate.query(likesSql + " ORDER BY film_id, user_id", (RowCallbackHandler) rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getInt("user_id"));
+            }
+        }, args);
+
+        return films;
+    }
+
+    private PreparedStatement openCursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(exportFetchSize);
+        return statement;
     }
 
-    private Map<String, Object> filmToRow(Film film) {
-        Map<String, Object> values = new HashMap<>();
-        values.put("name", film.getName());
-        values.put("description", film.getDescription());
-        values.put("mpa_id", film.getMpa().getId());
-        values.put("release_date", film.getReleaseDate());
-        values.put("duration", film.getDuration());
-        return values;
+    private void setFilmValues(PreparedStatement ps, Film film) throws SQLException {
+        ps.setString(1, film.getName());
+        ps.setString(2, film.getDescription());
+        ps.setInt(3, film.getMpa().getId());
+        ps.setObject(4, film.getReleaseDate());
+        ps.setLong(5, film.getDuration());
     }
 
 }
@@ -1,10 +1,12 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.mappers.GenresRowMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
@@ -12,24 +14,51 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
-@RequiredArgsConstructor
+@Profile("!inmemory")
 public class GenreDbStorageImpl implements GenreDbStorage {
     private final JdbcTemplate jdbcTemplate;
     private final GenresRowMapper genresRowMapper;
+    private final ReferenceDataCache<Genre> cache;
+    private final int batchSize;
+
+    public GenreDbStorageImpl(JdbcTemplate jdbcTemplate, GenresRowMapper genresRowMapper,
+                              @Value("${filmorate.jdbc.batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.genresRowMapper = genresRowMapper;
+        this.batchSize = batchSize;
+        String sql = "SELECT * FROM genres ORDER BY genre_id";
+        this.cache = new ReferenceDataCache<>(() -> jdbcTemplate.query(sql, genresRowMapper), Genre::getId);
+    }
 
     @Override
     public List<Genre> findAll() {
-        String sql = "SELECT * FROM genres ORDER BY genre_id";
-        return jdbcTemplate.query(sql, genresRowMapper);
+        return cache.findAll();
     }
 
     @Override
     public Genre findById(int id) {
-        String sql = "SELECT * FROM genres WHERE genre_id=?";
-        return jdbcTemplate.queryForObject(sql, genresRowMapper, id);
+        Genre genre = cache.findById(id);
+        if (genre == null) {
+            throw new DoesNotExistsException("Жанр с запрошенным идентификатором не найден");
+        }
+        return genre;
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return cache.findById(id) != null;
+    }
+
+    @Override
+    public void invalidate() {
+        cache.invalidate();
     }
 
     @Override
@@ -58,15 +87,53 @@ public class GenreDbStorageImpl implements GenreDbStorage {
     }
 
     @Override
-    public void updateFilmGenre(Film film) {
-        String sql = "DELETE FROM film_genres WHERE film_id=?";
-        jdbcTemplate.update(sql, film.getId());
-        if (film.getGenres() == null || film.getGenres().isEmpty()) {
+    public void addGenresToFilms(Collection<Film> films) {
+        List<int[]> rows = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() == null) {
+                continue;
+            }
+
+            Set<Integer> genreIds = new LinkedHashSet<>();
+            for (Genre genre : film.getGenres()) {
+                if (genreIds.add(genre.getId())) {
+                    rows.add(new int[]{film.getId(), genre.getId()});
+                }
+            }
+        }
+
+        if (rows.isEmpty()) {
             return;
         }
 
-        List<Genre> filmGenre = new ArrayList<>(film.getGenres());
+        String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, row) -> {
+            ps.setInt(1, row[0]);
+            ps.setInt(2, row[1]);
+        });
+    }
 
-        addGenreToTheFilm(film.getId(), filmGenre);
+    @Override
+    public void updateFilmGenre(Film film) {
+        Set<Integer> requested = new LinkedHashSet<>();
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                requested.add(genre.getId());
+            }
+        }
+
+        String sql = "SELECT genre_id FROM film_genres WHERE film_id=?";
+        Set<Integer> stored = new HashSet<>(jdbcTemplate.queryForList(sql, Integer.class, film.getId()));
+
+        List<Integer> removed = stored.stream().filter(id -> !requested.contains(id)).toList();
+        List<Genre> added = requested.stream().filter(id -> !stored.contains(id)).map(id -> new Genre(id, null)).toList();
+
+        if (!removed.isEmpty()) {
+            String deleteSql = "DELETE FROM film_genres WHERE film_id=? AND genre_id = ANY(?)";
+            jdbcTemplate.update(deleteSql, film.getId(), removed.toArray(Integer[]::new));
+        }
+        if (!added.isEmpty()) {
+            addGenreToTheFilm(film.getId(), added);
+        }
     }
 }
\ No newline at end of file
@@ -1,29 +1,46 @@
 package ru.yandex.practicum.filmorate.dao.Impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.mappers.MpaRowMapper;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.util.List;
 
-@RequiredArgsConstructor
 @Component
+@Profile("!inmemory")
 public class MpaDbStorageImpl implements MpaDbStorage {
-    private final JdbcTemplate jdbcTemplate;
-    private final MpaRowMapper mpaRowMapper;
+    private final ReferenceDataCache<Mpa> cache;
+
+    public MpaDbStorageImpl(JdbcTemplate jdbcTemplate, MpaRowMapper mpaRowMapper) {
+        String sql = "SELECT * FROM mpa ORDER BY mpa_id";
+        this.cache = new ReferenceDataCache<>(() -> jdbcTemplate.query(sql, mpaRowMapper), Mpa::getId);
+    }
 
     @Override
     public List<Mpa> findAll() {
-        String sql = "SELECT * FROM mpa ORDER BY mpa_id";
-        return jdbcTemplate.query(sql, mpaRowMapper);
+        return cache.findAll();
     }
 
     @Override
     public Mpa findById(int id) {
-        String sql = "SELECT * FROM mpa WHERE mpa_id = ?";
-        return jdbcTemplate.queryForObject(sql, mpaRowMapper, id);
+        Mpa mpa = cache.findById(id);
+        if (mpa == null) {
+            throw new DoesNotExistsException("Возрастной рейтинг с идентификатором " + id + " не найден");
+        }
+        return mpa;
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return cache.findById(id) != null;
+    }
+
+    @Override
+    public void invalidate() {
+        cache.invalidate();
     }
-}
\ No newline at end of file
+}
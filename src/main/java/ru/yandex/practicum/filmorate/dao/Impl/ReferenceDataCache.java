@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.dao.Impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+class ReferenceDataCache<T> {
+    private final Supplier<List<T>> loader;
+    private final ToIntFunction<T> idExtractor;
+    private long generation;
+    private volatile Object[] byId;
+
+    ReferenceDataCache(Supplier<List<T>> loader, ToIntFunction<T> idExtractor) {
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+    }
+
+    List<T> findAll() {
+        List<T> values = new ArrayList<>();
+        for (Object value : values()) {
+            if (value != null) {
+                values.add(cast(value));
+            }
+        }
+        return values;
+    }
+
+    T findById(int id) {
+        Object[] values = values();
+        return id > 0 && id < values.length ? cast(values[id]) : null;
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        byId = null;
+    }
+
+    private Object[] values() {
+        Object[] values = byId;
+        if (values != null) {
+            return values;
+        }
+
+        long loadedGeneration;
+        synchronized (this) {
+            loadedGeneration = generation;
+        }
+
+        List<T> rows = loader.get();
+        int maxId = rows.stream().mapToInt(idExtractor).max().orElse(0);
+        values = new Object[maxId + 1];
+        for (T row : rows) {
+            values[idExtractor.applyAsInt(row)] = row;
+        }
+
+        synchronized (this) {
+            if (!rows.isEmpty() && generation == loadedGeneration) {
+                byId = values;
+            }
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object value) {
+        return (T) value;
+    }
+}
@@ -2,29 +2,67 @@ package ru.yandex.practicum.filmorate.dao.Impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.mappers.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.Storage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.*;
 
 @Component
+@Profile("!inmemory")
 @RequiredArgsConstructor
 @Slf4j
-public class UserDbStorage implements Storage<User> {
+public class UserDbStorage implements UserStorage {
     private final JdbcTemplate jdbcTemplate;
     private final UserRowMapper userRowMapper;
 
+    @Value("${filmorate.jdbc.batch-size}")
+    private int batchSize;
+
+    private static final String INSERT_USER = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_USERS = "SELECT u.*, ARRAY(SELECT f.friend_id FROM friends AS f" +
+            " WHERE f.user_id = u.user_id ORDER BY f.friend_id) AS friend_ids";
+    private static final String FIND_MUTUAL_FRIENDS = SELECT_USERS + " FROM friends AS f1" +
+            " JOIN friends AS f2 ON f2.friend_id = f1.friend_id" +
+            " JOIN users AS u ON u.user_id = f1.friend_id" +
+            " WHERE f1.user_id = ? AND f2.user_id = ?" +
+            " ORDER BY u.user_id";
+    // Сортировка в порядке первичного ключа, иначе H2 выбирает индекс по friend_id и обходит всю таблицу friends
+    private static final String FIND_FRIENDS = SELECT_USERS + " FROM friends AS f" +
+            " JOIN users AS u ON u.user_id = f.friend_id" +
+            " WHERE f.user_id = ? AND f.friend_id > ?" +
+            " ORDER BY f.user_id, f.friend_id LIMIT ?";
+    private static final String MERGE_FRIEND = "MERGE INTO friends AS f USING (VALUES (?, ?)) AS v (user_id, friend_id)" +
+            " ON f.user_id = v.user_id AND f.friend_id = v.friend_id" +
+            " WHEN NOT MATCHED THEN INSERT (user_id, friend_id) VALUES (v.user_id, v.friend_id)";
+
     @Override
     public List<User> findAll() {
-        String sql = "SELECT * FROM users ORDER BY user_id";
+        String sql = SELECT_USERS + " FROM users AS u ORDER BY u.user_id";
         return jdbcTemplate.query(sql, userRowMapper);
     }
 
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        String sql = SELECT_USERS + " FROM users AS u WHERE u.user_id > ? ORDER BY u.user_id LIMIT ?";
+        return jdbcTemplate.query(sql, userRowMapper, afterId, limit);
+    }
+
     @Override
     public User create(User user) {
         SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
@@ -36,20 +74,101 @@ public class UserDbStorage implements Storage<User> {
     }
 
     @Override
-    public User add(int userId, int friendId) {
-        String sql = "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, friendId);
+    @Transactional
+    public List<User> createAll(List<User> users) {
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<User> batch = users.subList(from, Math.min(from + batchSize, users.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_USER, new String[]{"user_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            User user = batch.get(i);
+                            ps.setString(1, user.getEmail());
+                            ps.setString(2, user.getLogin());
+                            ps.setString(3, user.getName());
+                            ps.setDate(4, Date.valueOf(user.getBirthday()));
+                        }
 
-        return update(findById(userId));
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            }
+        }
+
+        return users;
+    }
+
+    @Override
+    @Transactional
+    public int addFriendships(List<Friendship> friendships) {
+        int[][] counts = jdbcTemplate.batchUpdate(MERGE_FRIEND, friendships, batchSize, (ps, friendship) -> {
+            ps.setInt(1, friendship.getUserId());
+            ps.setInt(2, friendship.getFriendId());
+        });
+
+        int added = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                added += Math.max(count, 0);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public boolean add(int userId, int friendId) {
+        try {
+            return jdbcTemplate.update(MERGE_FRIEND, userId, friendId) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
     }
 
     @Override
     public User findById(int id) {
-        String sql = "SELECT * FROM users WHERE user_id = ?";
-        User user = jdbcTemplate.queryForObject(sql, userRowMapper, id);
-        assert user != null;
-        user.setFriends(new TreeSet<>(findUserFriends(id)));
-        return user;
+        String sql = SELECT_USERS + " FROM users AS u WHERE u.user_id = ?";
+        return jdbcTemplate.queryForObject(sql, userRowMapper, id);
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        String sql = "SELECT user_id FROM users WHERE user_id = ANY(?)";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Integer.class, (Object) ids.toArray(Integer[]::new)));
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String sql = SELECT_USERS + " FROM users AS u WHERE u.user_id = ANY(?)";
+        Map<Integer, User> usersById = new HashMap<>();
+        for (User user : jdbcTemplate.query(sql, userRowMapper, (Object) ids.toArray(Integer[]::new))) {
+            usersById.put(user.getId(), user);
+        }
+
+        List<User> users = new ArrayList<>();
+        for (Integer id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
     }
 
     @Override
@@ -65,11 +184,9 @@ public class UserDbStorage implements Storage<User> {
     }
 
     @Override
-    public User remove(int userId, int friendId) {
+    public boolean remove(int userId, int friendId) {
         String sql = "DELETE FROM friends WHERE user_id=? AND friend_id=?";
-        jdbcTemplate.update(sql, userId, friendId);
-
-        return update(findById(userId));
+        return jdbcTemplate.update(sql, userId, friendId) > 0;
     }
 //
 //    private RowMapper<User> userRowMapper() {
@@ -82,9 +199,14 @@ public class UserDbStorage implements Storage<User> {
 //        );
 //    }
 
-    public List<Integer> findUserFriends(int userId) {
-        String sql = "SELECT friend_id FROM friends WHERE user_id=?";
-        return jdbcTemplate.query(sql, (resultSet, rowNum) -> resultSet.getInt("friend_id"), userId);
+    @Override
+    public List<User> findMutualFriends(int userId, int otherId) {
+        return jdbcTemplate.query(FIND_MUTUAL_FRIENDS, userRowMapper, userId, otherId);
+    }
+
+    @Override
+    public List<User> findFriends(int userId, int afterId, int limit) {
+        return jdbcTemplate.query(FIND_FRIENDS, userRowMapper, userId, afterId, limit);
     }
 
     private Map<String, Object> userToRow(User user) {
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает число потоков, одновременно держащих соединение с базой. Остальные ждут в очереди не дольше
+ * filmorate.jdbc.bulkhead.max-wait и получают {@link ServiceOverloadedException}, если место не освободилось.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.bulkhead.enabled", havingValue = "true")
+@Slf4j
+public class JdbcBulkhead {
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public JdbcBulkhead(MeterRegistry registry,
+                        @Value("${filmorate.jdbc.bulkhead.max-concurrent}") int maxConcurrent,
+                        @Value("${filmorate.jdbc.bulkhead.max-wait}") Duration maxWait) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+
+        this.waitTimer = Timer.builder("filmorate.jdbc.bulkhead.wait").register(registry);
+        this.rejected = Counter.builder("filmorate.jdbc.bulkhead.rejected").register(registry);
+        Gauge.builder("filmorate.jdbc.bulkhead.active", this, JdbcBulkhead::activeCount).register(registry);
+        Gauge.builder("filmorate.jdbc.bulkhead.queued", permits, Semaphore::getQueueLength).register(registry);
+        log.info("Ограничение обращений к базе включено: {} одновременно, ожидание не дольше {}", maxConcurrent,
+                maxWait);
+    }
+
+    public void acquire() {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Ожидание соединения с базой прервано");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Слишком много одновременных обращений к базе, повторите запрос позже");
+        }
+    }
+
+    /**
+     * Есть ли свободное разрешение, за которым никто не стоит в очереди. Разрешение не резервируется: проверка нужна,
+     * чтобы не выносить необязательный параллельный запрос туда, где он заведомо будет ждать.
+     */
+    public boolean hasCapacity() {
+        return permits.availablePermits() > 0 && !permits.hasQueuedThreads();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int activeCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
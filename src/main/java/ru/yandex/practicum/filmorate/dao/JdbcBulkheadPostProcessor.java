@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Пропускает получение соединения из {@link DataSource} через {@link JdbcBulkhead} и возвращает разрешение при
+ * закрытии соединения.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.bulkhead.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JdbcBulkheadPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<JdbcBulkhead> bulkhead;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+
+        return JdbcProxies.proxy(bean, (method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                return method.invoke(bean, args);
+            }
+
+            JdbcBulkhead limiter = bulkhead.getObject();
+            limiter.acquire();
+            try {
+                return releasingConnection((Connection) method.invoke(bean, args), limiter);
+            } catch (Throwable e) {
+                limiter.release();
+                throw e;
+            }
+        });
+    }
+
+    private Object releasingConnection(Connection connection, JdbcBulkhead limiter) {
+        AtomicBoolean released = new AtomicBoolean();
+        return JdbcProxies.proxy(connection, (method, args) -> {
+            if (!method.getName().equals("close")) {
+                return method.invoke(connection, args);
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    limiter.release();
+                }
+            }
+        });
+    }
+}
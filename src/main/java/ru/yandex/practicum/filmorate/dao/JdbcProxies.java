@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * JDK-прокси для объектов JDBC: перехватывают вызовы, но сравниваются и хэшируются как исходный объект, чтобы
+ * Spring узнавал обёрнутое соединение при освобождении.
+ */
+public final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    public static Object proxy(Object target, Invocation invocation) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, new Handler(target, invocation));
+    }
+
+    public interface Invocation {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private record Handler(Object target, Invocation invocation) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals") && args.length == 1) {
+                return target.equals(unwrap(args[0]));
+            }
+            if (method.getName().equals("hashCode") && args == null) {
+                return target.hashCode();
+            }
+
+            try {
+                return invocation.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static Object unwrap(Object obj) {
+            if (obj != null && Proxy.isProxyClass(obj.getClass())
+                    && Proxy.getInvocationHandler(obj) instanceof Handler handler) {
+                return handler.target();
+            }
+            return obj;
+        }
+    }
+}
@@ -8,4 +8,8 @@ public interface MpaDbStorage {
     List<Mpa> findAll();
 
     Mpa findById(int id);
+
+    boolean existsById(int id);
+
+    void invalidate();
 }
@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.exception.UnexpectedException;
+import ru.yandex.practicum.filmorate.statistics.QueryStatistics;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет независимые запросы одного обращения на виртуальных потоках, каждый на своём соединении. Одновременно
+ * вынесено не больше filmorate.hydration.max-concurrent запросов: сверх этого, когда у {@link JdbcBulkhead} нет
+ * свободных соединений, а также внутри транзакции, которую другие соединения не видят, запрос выполняется в
+ * вызывающем потоке при {@link Subquery#join()}.
+ */
+@Component
+@Slf4j
+public class ParallelQueries {
+    private final boolean enabled;
+    private final Semaphore budget;
+    private final int maxConcurrent;
+    private final Counter inline;
+    private final ObjectProvider<JdbcBulkhead> bulkhead;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("hydration-", 0).factory());
+
+    public ParallelQueries(MeterRegistry registry, ObjectProvider<JdbcBulkhead> bulkhead,
+                           @Value("${filmorate.hydration.parallel}") boolean enabled,
+                           @Value("${filmorate.hydration.max-concurrent}") int maxConcurrent) {
+        this.enabled = enabled;
+        this.budget = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = bulkhead;
+
+        this.inline = Counter.builder("filmorate.hydration.inline").register(registry);
+        Gauge.builder("filmorate.hydration.active", this, ParallelQueries::activeCount).register(registry);
+        if (enabled) {
+            log.info("Параллельная загрузка связанных данных включена: до {} запросов одновременно", maxConcurrent);
+        }
+    }
+
+    public <T> Subquery<T> fork(Supplier<T> query) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query::get;
+        }
+        JdbcBulkhead limiter = bulkhead.getIfAvailable();
+        if ((limiter != null && !limiter.hasCapacity()) || !budget.tryAcquire()) {
+            inline.increment();
+            return query::get;
+        }
+
+        boolean measured = QueryStatistics.isActive();
+        Future<Result<T>> future;
+        try {
+            future = executor.submit(() -> {
+                QueryStatistics statistics = measured ? QueryStatistics.start() : null;
+                try {
+                    return new Result<>(query.get(), statistics);
+                } finally {
+                    if (statistics != null) {
+                        statistics.stop();
+                    }
+                    budget.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            budget.release();
+            throw e;
+        }
+        return () -> await(future);
+    }
+
+    public int activeCount() {
+        return maxConcurrent - budget.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static <T> T await(Future<Result<T>> future) {
+        try {
+            Result<T> result = future.get();
+            QueryStatistics.include(result.statistics());
+            return result.value();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new UnexpectedException("Запрос к базе завершился ошибкой: " + e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException("Ожидание запроса к базе прервано");
+        }
+    }
+
+    @FunctionalInterface
+    public interface Subquery<T> {
+        T join();
+    }
+
+    private record Result<T>(T value, QueryStatistics statistics) {
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class QueryLimitExceededException extends RuntimeException {
+    public QueryLimitExceededException(String m) {
+        super(m);
+    }
+}
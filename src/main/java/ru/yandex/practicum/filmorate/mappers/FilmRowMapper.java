@@ -1,33 +1,21 @@
 package ru.yandex.practicum.filmorate.mappers;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.IntSet;
 
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
-import java.util.List;
+import java.util.TreeSet;
 
 @RequiredArgsConstructor
 @Component
 public class FilmRowMapper implements RowMapper<Film> {
-    private final JdbcTemplate jdbc;
-    private final RowMapper<Genre> genreRowMapper;
-    private final RowMapper<Mpa> mpaRowMapper;
-
-    private static final String FIND_ALL_USERS_THAT_LIKE = "SELECT user_id FROM likes WHERE film_id = ?";
-    private static final String FIND_ALL_FILM_GENRES = "SELECT g.genre_id, g.name FROM film_genres AS fg " +
-            " JOIN genres AS g ON g.genre_id = fg.genre_id" +
-            " WHERE fg.film_id = ?";
-    private static final String FIND_FILM_MPA = "SELECT m.mpa_id, m.name FROM films AS f" +
-            " JOIN mpa AS m ON m.mpa_id = f.mpa_id" +
-            " WHERE f.film_id = ?";
+    private final MpaDbStorage mpaDbStorage;
 
     @Override
     public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -40,14 +28,9 @@ public class FilmRowMapper implements RowMapper<Film> {
         film.setReleaseDate(releaseDate.toLocalDate());
 
         film.setDuration(rs.getInt("duration"));
-
-        List<Integer> likes = jdbc.queryForList(FIND_ALL_USERS_THAT_LIKE, Integer.class, film.getId());
-        film.setLikes(new HashSet<>(likes));
-
-        List<Genre> genres = jdbc.query(FIND_ALL_FILM_GENRES, genreRowMapper, film.getId());
-        film.setGenres(new HashSet<>(genres));
-
-        film.setMpa(jdbc.queryForObject(FIND_FILM_MPA, mpaRowMapper, film.getId()));
+        film.setMpa(mpaDbStorage.findById(rs.getInt("mpa_id")));
+        film.setLikes(new IntSet());
+        film.setGenres(new TreeSet<>());
         return film;
     }
 }
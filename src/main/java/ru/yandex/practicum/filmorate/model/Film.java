@@ -19,6 +19,6 @@ public class Film {
     private LocalDate releaseDate;
     private long duration;
     private Mpa mpa;
-    private Set<Integer> likes;
+    private IntSet likes;
     private Set<Genre> genres;
 }
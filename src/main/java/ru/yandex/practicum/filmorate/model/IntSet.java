@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+@JsonSerialize(using = IntSet.Serializer.class)
+@JsonDeserialize(using = IntSet.Deserializer.class)
+public class IntSet extends AbstractSet<Integer> {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements;
+    private int size;
+
+    public IntSet() {
+        elements = EMPTY;
+    }
+
+    public IntSet(IntSet other) {
+        elements = Arrays.copyOf(other.elements, other.size);
+        size = other.size;
+    }
+
+    public IntSet(Collection<Integer> values) {
+        int[] unsorted = new int[values.size()];
+        int count = 0;
+        for (Integer value : values) {
+            unsorted[count++] = value;
+        }
+        elements = unsorted;
+        size = sortDistinct(unsorted, count);
+    }
+
+    private IntSet(int[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    public static IntSet of(int... values) {
+        int[] copy = values.clone();
+        return new IntSet(copy, sortDistinct(copy, copy.length));
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(elements, 0, size, value) >= 0;
+    }
+
+    public boolean add(int value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+
+        index = -index - 1;
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+
+        removeAt(index);
+        return true;
+    }
+
+    public IntSet intersect(IntSet other) {
+        IntSet small = size <= other.size ? this : other;
+        IntSet large = small == this ? other : this;
+        int[] common = new int[small.size];
+        int count = 0;
+
+        if ((long) small.size * 16 < large.size) {
+            int from = 0;
+            for (int i = 0; i < small.size && from < large.size; i++) {
+                int index = Arrays.binarySearch(large.elements, from, large.size, small.elements[i]);
+                if (index >= 0) {
+                    common[count++] = small.elements[i];
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.size && j < large.size) {
+                int a = small.elements[i];
+                int b = large.elements[j];
+                if (a == b) {
+                    common[count++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+        return new IntSet(common, count);
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && contains(value.intValue());
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer value && remove(value.intValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private int expectedSize = size;
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (expectedSize != size) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                return elements[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                removeAt(--next);
+                expectedSize = size;
+                canRemove = false;
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+    }
+
+    private static int sortDistinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+
+    public static class Serializer extends StdSerializer<IntSet> {
+        public Serializer() {
+            super(IntSet.class);
+        }
+
+        @Override
+        public void serialize(IntSet value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeArray(value.elements, 0, value.size);
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<IntSet> {
+        public Deserializer() {
+            super(IntSet.class);
+        }
+
+        @Override
+        public IntSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (IntSet) ctxt.handleUnexpectedToken(IntSet.class, p);
+            }
+
+            int[] values = new int[16];
+            int count = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = _parseIntPrimitive(p, ctxt);
+            }
+            return new IntSet(values, sortDistinct(values, count));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
@@ -10,30 +11,62 @@ import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.Storage;
 
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FilmService {
-    private final Storage<Film> filmStorage;
+    private final FilmStorage filmStorage;
     private final Storage<User> userStorage;
     private final MpaDbStorage mpaDbStorage;
     private final GenreDbStorage genreDbStorage;
+    private final PopularityLeaderboard leaderboard;
+    private final Optional<LikeWriteBuffer> likeWriteBuffer;
 
+    @Value("${filmorate.pagination.max-limit}")
+    private int maxPageLimit;
 
     public List<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public List<Film> findPage(Integer after, int limit) {
+        if (limit <= 0 || limit > maxPageLimit) {
+            throw new ValidationException("Значение параметра limit должно быть от 1 до " + maxPageLimit);
+        }
+
+        return filmStorage.findPage(after == null ? 0 : after, limit);
+    }
+
+    public List<Film> findByIds(List<Integer> ids) {
+        if (ids.size() > maxPageLimit) {
+            throw new ValidationException("В параметре ids можно передать не больше " + maxPageLimit + " идентификаторов");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Параметр ids не должен содержать пустых идентификаторов");
+        }
+
+        return filmStorage.findByIds(new LinkedHashSet<>(ids));
+    }
+
+    public void exportAll(Consumer<Film> consumer) {
+        filmStorage.exportAll(consumer);
+    }
+
     public Film findById(Integer id) {
          if (id == null) {
             throw new UnexpectedException("Случилась непредвиденная ошибка - передан null");
@@ -43,16 +76,26 @@ public class FilmService {
     }
 
     public Film create(Film film) {
-        filmValidationTest(film);
+        prepareForCreate(film);
 
-        if (film.getGenres() == null || film.getGenres().isEmpty()) {
-            film.setGenres(new HashSet<>());
-            return filmStorage.create(film);
-        } else {
-            validateGenre(film);
-        }
+        return leaderboard.update(() -> {
+            Film created = filmStorage.create(film);
+            leaderboard.register(created.getId());
+            return created;
+        });
+    }
 
-        return filmStorage.create(film);
+    public List<Film> createAll(List<Film> films) {
+        films.forEach(this::prepareForCreate);
+        return createValidated(films);
+    }
+
+    List<Film> createValidated(List<Film> films) {
+        return leaderboard.update(() -> {
+            List<Film> created = filmStorage.createAll(films);
+            created.forEach(film -> leaderboard.register(film.getId()));
+            return created;
+        });
     }
 
     public Film update(Film film) {
@@ -60,8 +103,9 @@ public class FilmService {
             throw new DoesNotExistsException("Запрошенного фильма не существует");
         }
 
-        findById(film.getId());
-
+        if (!filmStorage.existsById(film.getId())) {
+            throw new DoesNotExistsException("Фильм с id " + film.getId() + " не найден");
+        }
 
         if (film.getGenres() != null) {
             film.setGenres(new TreeSet<>(film.getGenres()));
@@ -72,35 +116,70 @@ public class FilmService {
 
     public void add(Integer filmId, Integer userId) {
         checkFilmAndUserId(filmId, userId);
-        filmStorage.add(filmId, userId);
+        leaderboard.update(() -> {
+            boolean added = likeWriteBuffer.isPresent()
+                    ? likeWriteBuffer.get().like(filmId, userId)
+                    : filmStorage.add(filmId, userId);
+            if (added) {
+                leaderboard.increment(filmId);
+            }
+            return added;
+        });
     }
 
     public void remove(Integer filmId, Integer userId) {
         checkFilmAndUserId(filmId, userId);
-        filmStorage.remove(filmId, userId);
+        leaderboard.update(() -> {
+            boolean removed = likeWriteBuffer.isPresent()
+                    ? likeWriteBuffer.get().unlike(filmId, userId)
+                    : filmStorage.remove(filmId, userId);
+            if (removed) {
+                leaderboard.decrement(filmId);
+            }
+            return removed;
+        });
+    }
+
+    public void addLikes(List<Like> likes) {
+        leaderboard.update(() -> {
+            Map<Integer, Integer> added = filmStorage.addLikes(likes);
+            added.forEach(leaderboard::increment);
+            return added;
+        });
     }
 
     public List<Film> findTopLiked(int count) {
-        if (filmStorage.findAll().isEmpty()) {
+        List<Film> films = leaderboard.isBuilt()
+                ? filmStorage.findByIds(leaderboard.top(count))
+                : filmStorage.findPopular(count);
+
+        if (films.isEmpty()) {
             throw new DoesNotExistsException("Фильмов в базе пока нет");
         }
 
-        return filmStorage.findAll().stream()
-                .sorted((f0, f1) -> (f1.getLikes().size() - f0.getLikes().size()))
-                .limit(count)
-                .collect(Collectors.toList());
+        return films;
     }
 
     private void checkFilmAndUserId(Integer filmId, Integer userId) {
-        if (filmStorage.findById(filmId) == null) {
+        if (filmId == null || !filmStorage.existsById(filmId)) {
             throw new DoesNotExistsException("Введен не существующий идентификатор фильма");
         }
 
-        if (userStorage.findById(userId) == null) {
+        if (userId == null || !userStorage.existsById(userId)) {
             throw new DoesNotExistsException("Введен не существующий идентификатор пользователя");
         }
     }
 
+    void prepareForCreate(Film film) {
+        filmValidationTest(film);
+
+        if (film.getGenres() == null || film.getGenres().isEmpty()) {
+            film.setGenres(new HashSet<>());
+        } else {
+            validateGenre(film);
+        }
+    }
+
     private void filmValidationTest(Film film) {
         validateName(film);
         validateDescription(film);
@@ -142,11 +221,8 @@ public class FilmService {
     }
 
     private void validateMpa(Film film) {
-        List<Mpa> mpaList = mpaDbStorage.findAll();
-        for (Mpa mpa : mpaList) {
-            if (mpa.getId() == film.getMpa().getId()) {
-                return;
-            }
+        if (film.getMpa() != null && mpaDbStorage.existsById(film.getMpa().getId())) {
+            return;
         }
 
         log.info("Выполнение метода прервано. Ошибка рейтинга фильма. Рейтинг не указан либо не существует");
@@ -154,9 +230,8 @@ public class FilmService {
     }
 
     private void validateGenre(Film film) {
-        List<Integer> genresId = genreDbStorage.findAll().stream().map(Genre::getId).toList();
         for (Genre genre : film.getGenres()) {
-            if (!genresId.contains(genre.getId())) {
+            if (!genreDbStorage.existsById(genre.getId())) {
                 log.info("Выполнение метода прервано. Указаный жанр не существует");
                 throw new ValidationException("У фильма должен быть указан существующий жанр");
             }
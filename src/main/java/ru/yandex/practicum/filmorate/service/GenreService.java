@@ -3,7 +3,6 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
-import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.util.List;
@@ -18,10 +17,6 @@ public class GenreService {
     }
 
     public Genre findById(int id) {
-        if (!findAll().stream().map(Genre::getId).toList().contains(id)) {
-            throw new DoesNotExistsException("Жанр с запрошенным идентификатором не найден");
-        }
-
         return genreDbStorage.findById(id);
     }
 }
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportService {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+
+    @Value("${filmorate.import.batch-size}")
+    private int batchSize;
+
+    @Value("${filmorate.import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    public ImportReport importFilms(InputStream body) {
+        return importRecords(body, Film.class,
+                records -> validateEach(records, filmService::prepareForCreate),
+                filmService::createValidated);
+    }
+
+    public ImportReport importUsers(InputStream body) {
+        return importRecords(body, User.class,
+                records -> validateEach(records, userService::prepareForCreate),
+                userService::createValidated);
+    }
+
+    public ImportReport importLikes(InputStream body) {
+        return importRecords(body, Like.class, records -> {
+            Set<Integer> films = filmStorage.findExistingIds(ids(records, Like::getFilmId));
+            Set<Integer> users = userStorage.findExistingIds(ids(records, Like::getUserId));
+            validateEach(records, like -> {
+                if (!films.contains(like.getFilmId())) {
+                    throw new DoesNotExistsException("Фильм с id " + like.getFilmId() + " не найден");
+                }
+                if (!users.contains(like.getUserId())) {
+                    throw new DoesNotExistsException("Пользователь с id " + like.getUserId() + " не найден");
+                }
+            });
+        }, filmService::addLikes);
+    }
+
+    public ImportReport importFriendships(InputStream body) {
+        return importRecords(body, Friendship.class, records -> {
+            Set<Integer> users = userStorage.findExistingIds(ids(records, Friendship::getUserId));
+            users.addAll(userStorage.findExistingIds(ids(records, Friendship::getFriendId)));
+            validateEach(records, friendship -> {
+                if (!users.contains(friendship.getUserId())) {
+                    throw new DoesNotExistsException("Пользователь с id " + friendship.getUserId() + " не найден");
+                }
+                if (!users.contains(friendship.getFriendId())) {
+                    throw new DoesNotExistsException("Пользователь с id " + friendship.getFriendId() + " не найден");
+                }
+            });
+        }, userService::addFriendships);
+    }
+
+    private <T> ImportReport importRecords(InputStream body, Class<T> type,
+                                           Consumer<List<ImportRecord<T>>> validator, Consumer<List<T>> writer) {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        ObjectReader reader = objectMapper.readerFor(type);
+        List<ImportRecord<T>> batch = new ArrayList<>();
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                T value;
+                try {
+                    value = reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    reject(report, lineNumber, "Некорректный JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                if (value == null) {
+                    reject(report, lineNumber, "Пустая запись");
+                    continue;
+                }
+
+                batch.add(new ImportRecord<>(lineNumber, value));
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, validator, writer, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Не удалось прочитать тело запроса: " + e.getMessage());
+        }
+        flush(batch, validator, writer, report);
+        report.getErrors().sort(Comparator.comparingLong(ImportError::getLine));
+
+        log.info("Импорт {}: принято {}, отклонено {} за {} мс", type.getSimpleName(), report.getAccepted(),
+                report.getRejected(), (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    private <T> void flush(List<ImportRecord<T>> batch, Consumer<List<ImportRecord<T>>> validator,
+                           Consumer<List<T>> writer, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        validator.accept(batch);
+
+        List<ImportRecord<T>> valid = new ArrayList<>(batch.size());
+        for (ImportRecord<T> record : batch) {
+            if (record.error != null) {
+                reject(report, record.line, record.error);
+            } else {
+                valid.add(record);
+            }
+        }
+
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            writer.accept(valid.stream().map(record -> record.value).toList());
+            report.setAccepted(report.getAccepted() + valid.size());
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} записей не записан, записи будут повторены по одной: {}", valid.size(),
+                    e.getMessage());
+            for (ImportRecord<T> record : valid) {
+                try {
+                    writer.accept(List.of(record.value));
+                    report.setAccepted(report.getAccepted() + 1);
+                } catch (RuntimeException recordException) {
+                    reject(report, record.line, message(recordException));
+                }
+            }
+        }
+    }
+
+    private <T> void validateEach(List<ImportRecord<T>> records, Consumer<T> check) {
+        for (ImportRecord<T> record : records) {
+            try {
+                check.accept(record.value);
+            } catch (ValidationException | DoesNotExistsException | AlreadyExistsException e) {
+                record.error = e.getMessage();
+            } catch (RuntimeException e) {
+                record.error = "Запись заполнена не полностью";
+            }
+        }
+    }
+
+    private <T> Set<Integer> ids(List<ImportRecord<T>> records, Function<T, Integer> idExtractor) {
+        Set<Integer> ids = new HashSet<>();
+        for (ImportRecord<T> record : records) {
+            ids.add(idExtractor.apply(record.value));
+        }
+        return ids;
+    }
+
+    private void reject(ImportReport report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ImportError(line, message));
+        }
+    }
+
+    private String message(RuntimeException e) {
+        if (e instanceof DataAccessException dataAccessException) {
+            return "Запись отклонена базой данных: " + dataAccessException.getMostSpecificCause().getMessage();
+        }
+        return e.getMessage();
+    }
+
+    private static final class ImportRecord<T> {
+        private final long line;
+        private final T value;
+        private String error;
+
+        private ImportRecord(long line, T value) {
+            this.line = line;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikeCountReconciliationJob {
+    private final FilmStorage filmStorage;
+    private final PopularityLeaderboard leaderboard;
+
+    @Scheduled(initialDelayString = "${filmorate.likes.reconcile-interval}",
+            fixedDelayString = "${filmorate.likes.reconcile-interval}")
+    public void reconcile() {
+        int repaired = filmStorage.reconcileLikeCounts();
+
+        if (repaired > 0) {
+            log.warn("Счетчик лайков расходился с таблицей likes и был исправлен у {} фильмов", repaired);
+        } else {
+            log.info("Счетчики лайков совпадают с таблицей likes");
+        }
+
+        leaderboard.rebuild();
+    }
+}
@@ -0,0 +1,331 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class LikeWriteBuffer implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final int capacity;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Duration drainTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private Map<Like, Boolean> pending = new LinkedHashMap<>();
+    private Map<Like, Boolean> inFlight = new HashMap<>();
+    private long flushGeneration;
+    private long writtenBatches;
+    private int drainWaiters;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LikeWriteBuffer(FilmStorage filmStorage,
+                           @Value("${filmorate.likes.write-behind.capacity}") int capacity,
+                           @Value("${filmorate.likes.write-behind.flush-size}") int flushSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval}") Duration flushInterval,
+                           @Value("${filmorate.likes.write-behind.offer-timeout}") Duration offerTimeout,
+                           @Value("${filmorate.likes.write-behind.drain-timeout}") Duration drainTimeout) {
+        this.filmStorage = filmStorage;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "like-write-behind");
+        flusher.start();
+        log.info("Отложенная запись лайков включена: ёмкость {}, пакет {}, интервал {}", capacity, flushSize,
+                flushInterval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+    }
+
+    public boolean like(int filmId, int userId) {
+        return submit(new Like(filmId, userId), true);
+    }
+
+    public boolean unlike(int filmId, int userId) {
+        return submit(new Like(filmId, userId), false);
+    }
+
+    /**
+     * Дожидается записи в базу всех лайков, принятых до вызова. Возвращает false, если запись не успела
+     * завершиться за filmorate.likes.write-behind.drain-timeout.
+     */
+    public boolean flushNow() {
+        lock.lock();
+        try {
+            long target = writtenBatches + (inFlight.isEmpty() ? 0 : 1) + (pending.isEmpty() ? 0 : 1);
+            long nanos = drainTimeout.toNanos();
+            drainWaiters++;
+            try {
+                while (running && writtenBatches < target) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    flushRequested.signal();
+                    nanos = flushed.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                drainWaiters--;
+            }
+            return writtenBatches >= target || (pending.isEmpty() && inFlight.isEmpty());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.likes.write-behind.pending", this, LikeWriteBuffer::pendingCount)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.write-behind.dropped", dropped, AtomicLong::get)
+                .register(registry);
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean submit(Like like, boolean liked) {
+        Boolean stored = null;
+        long storedGeneration = -1;
+        while (true) {
+            lock.lock();
+            try {
+                if (running) {
+                    Boolean buffered = pending.containsKey(like) ? pending.get(like) : inFlight.get(like);
+                    if (buffered == null && (stored == null || storedGeneration != flushGeneration)) {
+                        storedGeneration = flushGeneration;
+                    } else {
+                        boolean current = buffered != null ? buffered : stored;
+                        if (current == liked) {
+                            return false;
+                        }
+
+                        awaitCapacity(like);
+                        pending.put(like, liked);
+                        if (pending.size() >= flushSize) {
+                            flushRequested.signal();
+                        }
+                        return true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!running) {
+                awaitStopped();
+                return liked
+                        ? filmStorage.add(like.getFilmId(), like.getUserId())
+                        : filmStorage.remove(like.getFilmId(), like.getUserId());
+            }
+            stored = filmStorage.hasLike(like.getFilmId(), like.getUserId());
+        }
+    }
+
+    private void awaitStopped() {
+        Thread thread = flusher;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Ожидание записи лайков при остановке прервано");
+        }
+    }
+
+    private void awaitCapacity(Like like) {
+        long nanos = offerTimeout.toNanos();
+        try {
+            while (!pending.containsKey(like) && pending.size() >= capacity) {
+                if (nanos <= 0) {
+                    throw new ServiceOverloadedException("Очередь записи лайков переполнена, повторите запрос позже");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Ожидание места в очереди записи лайков прервано");
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!flush(false)) {
+                    log.error("Не удалось записать {} лайков, повтор через {}", pendingCount(), flushInterval);
+                    awaitRetry();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Не удалось записать пакет лайков, повтор через {}", flushInterval, e);
+                awaitRetry();
+            }
+        }
+
+        try {
+            flush(true);
+        } catch (InterruptedException | RuntimeException e) {
+            log.error("Не удалось записать {} лайков при остановке", pendingCount(), e);
+        }
+    }
+
+    private boolean flush(boolean draining) throws InterruptedException {
+        Map<Like, Boolean> batch;
+        lock.lock();
+        try {
+            if (!draining && running && pending.size() < flushSize && (drainWaiters == 0 || pending.isEmpty())) {
+                flushRequested.await(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (pending.isEmpty()) {
+                return true;
+            }
+
+            batch = pending;
+            inFlight = batch;
+            pending = new LinkedHashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        Map<Like, Boolean> failed = batch;
+        try {
+            failed = write(batch);
+        } finally {
+            lock.lock();
+            try {
+                if (failed.isEmpty()) {
+                    writtenBatches++;
+                } else {
+                    failed.forEach(pending::putIfAbsent);
+                }
+                inFlight = new HashMap<>();
+                flushGeneration++;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return failed.isEmpty();
+    }
+
+    /**
+     * Пишет пакет целиком, а если не вышло, то по одному лайку. Лайк, который база отвергает (например, фильм или
+     * пользователь уже удалены), отбрасывается; остальные ошибки считаются временными, и такие лайки возвращаются
+     * для повтора.
+     */
+    private Map<Like, Boolean> write(Map<Like, Boolean> batch) {
+        try {
+            writeBatch(batch);
+            return Map.of();
+        } catch (RuntimeException e) {
+            log.warn("Пакет из {} лайков не записан, лайки будут повторены по одному: {}", batch.size(),
+                    e.getMessage());
+        }
+
+        Map<Like, Boolean> failed = new LinkedHashMap<>();
+        batch.forEach((like, liked) -> {
+            try {
+                writeBatch(Map.of(like, liked));
+            } catch (DataIntegrityViolationException e) {
+                dropped.incrementAndGet();
+                log.error("Лайк фильму {} от пользователя {} отброшен: {}", like.getFilmId(), like.getUserId(),
+                        e.getMessage());
+            } catch (RuntimeException e) {
+                failed.put(like, liked);
+            }
+        });
+        return failed;
+    }
+
+    private void writeBatch(Map<Like, Boolean> batch) {
+        List<Like> added = new ArrayList<>();
+        List<Like> removed = new ArrayList<>();
+        batch.forEach((like, liked) -> (liked ? added : removed).add(like));
+
+        if (!added.isEmpty()) {
+            filmStorage.addLikes(added);
+        }
+        if (!removed.isEmpty()) {
+            filmStorage.removeLikes(removed);
+        }
+        log.debug("Записано лайков: {}, снято: {}", added.size(), removed.size());
+    }
+
+    private void awaitRetry() {
+        lock.lock();
+        try {
+            if (running) {
+                flushRequested.await(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
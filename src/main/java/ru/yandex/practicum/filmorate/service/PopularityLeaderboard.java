@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PopularityLeaderboard implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final Optional<LikeWriteBuffer> likeWriteBuffer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+    private Map<Integer, Integer> likeCounts = new HashMap<>();
+    private TreeSet<Long> ranking = new TreeSet<>();
+    private volatile boolean built;
+    private volatile Instant lastRebuildTime;
+    private volatile Duration lastRebuildDuration = Duration.ZERO;
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить рейтинг популярности, запросы будут обслуживаться из базы", e);
+        }
+    }
+
+    /**
+     * Перечитывает счётчики из базы, не блокируя чтение рейтинга. Изменения лайков на время перестроения
+     * приостанавливаются: отложенные лайки записываются в базу, и снимок точно совпадает с тем, что уже учтено в
+     * рейтинге, без повторного счёта.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        updateLock.writeLock().lock();
+        try {
+            if (built && likeWriteBuffer.isPresent() && !likeWriteBuffer.get().flushNow()) {
+                log.warn("Рейтинг популярности не перестроен: отложенные лайки не успели записаться в базу");
+                return;
+            }
+
+            Map<Integer, Integer> rebuiltCounts = new HashMap<>(filmStorage.findLikeCounts());
+            TreeSet<Long> rebuiltRanking = new TreeSet<>();
+            rebuiltCounts.forEach((filmId, count) -> rebuiltRanking.add(rankKey(filmId, count)));
+
+            lock.writeLock().lock();
+            try {
+                likeCounts = rebuiltCounts;
+                ranking = rebuiltRanking;
+
+                built = true;
+                lastRebuildTime = Instant.now();
+                lastRebuildDuration = Duration.ofNanos(System.nanoTime() - start);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+
+        log.info("Рейтинг популярности построен: {} фильмов за {} мс", size(), lastRebuildDuration.toMillis());
+    }
+
+    /**
+     * Выполняет запись в хранилище вместе с последующей правкой рейтинга так, чтобы перестроение не прочитало
+     * базу между ними.
+     */
+    public <T> T update(Supplier<T> change) {
+        updateLock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            updateLock.readLock().unlock();
+        }
+    }
+
+    public void register(int filmId) {
+        adjust(filmId, 0);
+    }
+
+    public void increment(int filmId) {
+        adjust(filmId, 1);
+    }
+
+    public void increment(int filmId, int count) {
+        adjust(filmId, count);
+    }
+
+    public void decrement(int filmId) {
+        adjust(filmId, -1);
+    }
+
+    public List<Integer> top(int count) {
+        List<Integer> filmIds = new ArrayList<>(Math.min(count, 64));
+
+        lock.readLock().lock();
+        try {
+            Iterator<Long> iterator = ranking.iterator();
+            while (iterator.hasNext() && filmIds.size() < count) {
+                filmIds.add(filmId(iterator.next()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return filmIds;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.leaderboard.size", this, PopularityLeaderboard::size).register(registry);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return likeCounts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public Instant getLastRebuildTime() {
+        return lastRebuildTime;
+    }
+
+    public Duration getLastRebuildDuration() {
+        return lastRebuildDuration;
+    }
+
+    private void adjust(int filmId, int delta) {
+        updateLock.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            Integer current = likeCounts.get(filmId);
+            int count = current == null ? 0 : current;
+            if (current != null) {
+                ranking.remove(rankKey(filmId, count));
+            }
+
+            count = Math.max(0, count + delta);
+            likeCounts.put(filmId, count);
+            ranking.add(rankKey(filmId, count));
+        } finally {
+            lock.writeLock().unlock();
+            updateLock.readLock().unlock();
+        }
+    }
+
+    private static long rankKey(int filmId, int count) {
+        return ((long) (Integer.MAX_VALUE - count) << 32) | (filmId & 0xFFFFFFFFL);
+    }
+
+    private static int filmId(long rankKey) {
+        return (int) rankKey;
+    }
+}
@@ -2,29 +2,52 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.exception.UnexpectedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.Storage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
-    private final Storage<User> userStorage;
+    private final UserStorage userStorage;
+
+    @Value("${filmorate.pagination.max-limit}")
+    private int maxPageLimit;
 
     public List<User> findAll() {
         return new ArrayList<>(userStorage.findAll());
     }
 
+    public List<User> findPage(Integer after, int limit) {
+        if (limit <= 0 || limit > maxPageLimit) {
+            throw new ValidationException("Значение параметра limit должно быть от 1 до " + maxPageLimit);
+        }
+
+        return userStorage.findPage(after == null ? 0 : after, limit);
+    }
+
+    public List<User> findByIds(List<Integer> ids) {
+        if (ids.size() > maxPageLimit) {
+            throw new ValidationException("В параметре ids можно передать не больше " + maxPageLimit + " идентификаторов");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Параметр ids не должен содержать пустых идентификаторов");
+        }
+
+        return userStorage.findByIds(new LinkedHashSet<>(ids));
+    }
+
     public User findById(int id) {
         try {
             User user = userStorage.findById(id);
@@ -40,73 +63,69 @@ public class UserService {
         }
     }
 
-    public List<User> findUserFriends(int userId) {
-        List<User> users = findAll();
-        Set<Integer> friendsId = new HashSet<>();
-        List<User> friends;
-
-        validateUserExists(users, userId);
-
-        for (User user : users) {
-            if (user.getId() == userId) {
-                friendsId.addAll(user.getFriends());
-            }
+    public List<User> findUserFriends(int userId, Integer after, Integer limit) {
+        if (limit != null && (limit <= 0 || limit > maxPageLimit)) {
+            throw new ValidationException("Значение параметра limit должно быть от 1 до " + maxPageLimit);
         }
 
-        friends = users.stream().filter(user -> friendsId.contains(user.getId())).toList();
-
+        List<User> friends = userStorage.findFriends(userId, after == null ? 0 : after,
+                limit == null ? Integer.MAX_VALUE : limit);
+        if (friends.isEmpty()) {
+            validateUserExists(userId);
+        }
         return friends;
     }
 
     public User createUser(User user) {
-        if (user.getId() != null && user.getId() > 0) {
-            throw new AlreadyExistsException("Пользователь уже существует");
-        }
-        userValidationTest(user);
+        prepareForCreate(user);
 
         return userStorage.create(user);
     }
 
+    public List<User> createAll(List<User> users) {
+        users.forEach(this::prepareForCreate);
+        return createValidated(users);
+    }
+
+    List<User> createValidated(List<User> users) {
+        return userStorage.createAll(users);
+    }
+
     public User updateUser(User user) {
-        List<User> users = findAll();
-        validateUserExists(users, user.getId());
+        validateUserExists(user.getId());
         userValidationTest(user);
         return userStorage.update(user);
     }
 
     public void addFriend(int userId, int friendId) {
-        List<User> users = findAll();
-        validateUserExists(users, userId);
-        validateUserExists(users, friendId);
+        validateUsersExist(userId, friendId);
 
         userStorage.add(userId, friendId);
     }
 
     public void removeFriend(Integer userId, Integer friendId) {
-        List<User> users = findAll();
-        validateUserExists(users, userId);
-        validateUserExists(users, friendId);
+        validateUsersExist(userId, friendId);
 
         userStorage.remove(userId, friendId);
     }
 
-    public List<User> findMutualFriends(int user1Id, int user2Id) {
-        Set<Integer> user1Friends = userStorage.findById(user1Id).getFriends();
-        Set<Integer> user2Friends = userStorage.findById(user2Id).getFriends();
+    public void addFriendships(List<Friendship> friendships) {
+        userStorage.addFriendships(friendships);
+    }
 
-        if (user1Friends.isEmpty() || user2Friends.isEmpty()) {
-            return new ArrayList<>();
+    public List<User> findMutualFriends(int user1Id, int user2Id) {
+        List<User> mutualFriends = userStorage.findMutualFriends(user1Id, user2Id);
+        if (mutualFriends.isEmpty()) {
+            validateUsersExist(user1Id, user2Id);
         }
+        return mutualFriends;
+    }
 
-        List<Integer> mutualFriendsId = user1Friends.stream()
-                .filter(user2Friends::contains)
-                .collect(Collectors.toList());
-
-        List<User> mutualFriends = new ArrayList<>();
-        for (int id : mutualFriendsId) {
-            mutualFriends.add(userStorage.findById(id));
+    void prepareForCreate(User user) {
+        if (user.getId() != null && user.getId() > 0) {
+            throw new AlreadyExistsException("Пользователь уже существует");
         }
-        return mutualFriends;
+        userValidationTest(user);
     }
 
     private void userValidationTest(User user) {
@@ -144,8 +163,14 @@ public class UserService {
         }
     }
 
-    private void validateUserExists(List<User> userList, int userId) {
-        if (!userList.stream().map(User::getId).toList().contains(userId)) {
+    private void validateUserExists(Integer userId) {
+        if (userId == null || !userStorage.existsById(userId)) {
+            throw new DoesNotExistsException("Пользователь не существует");
+        }
+    }
+
+    private void validateUsersExist(int userId, int otherId) {
+        if (!userStorage.findExistingIds(List.of(userId, otherId)).containsAll(List.of(userId, otherId))) {
             throw new DoesNotExistsException("Пользователь не существует");
         }
     }
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.statistics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры filmorate.storage и filmorate.service на каждый метод хранилищ и сервисов. Гистограммы для перцентилей
+ * включаются свойствами management.metrics.distribution.percentiles-histogram.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LatencyMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(* ru.yandex.practicum.filmorate.storage.Storage.*(..))" +
+            " || execution(* ru.yandex.practicum.filmorate.storage.FilmStorage.*(..))" +
+            " || execution(* ru.yandex.practicum.filmorate.storage.UserStorage.*(..))" +
+            " || execution(* ru.yandex.practicum.filmorate.dao.GenreDbStorage.*(..))" +
+            " || execution(* ru.yandex.practicum.filmorate.dao.MpaDbStorage.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("filmorate.storage", "storage", joinPoint);
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.service.*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("filmorate.service", "service", joinPoint);
+    }
+
+    private Object time(String name, String typeTag, ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = AopUtils.getTargetClass(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+        Timer timer = timers.computeIfAbsent(name + ":" + type.getName() + "." + method, key -> Timer.builder(name)
+                .tag(typeTag, type.getSimpleName())
+                .tag("method", method)
+                .register(meterRegistry));
+
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
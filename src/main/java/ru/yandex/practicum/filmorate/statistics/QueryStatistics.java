@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.statistics;
+
+/**
+ * Счётчики SQL-запросов, полученных строк и времени в базе для текущего потока. Области вкладываются:
+ * при закрытии вложенной области её счётчики добавляются к внешней.
+ */
+public class QueryStatistics {
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final QueryStatistics parent;
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private QueryStatistics(QueryStatistics parent) {
+        this.parent = parent;
+    }
+
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public void stop() {
+        if (parent == null) {
+            CURRENT.remove();
+            return;
+        }
+
+        parent.statements += statements;
+        parent.rows += rows;
+        parent.nanos += nanos;
+        CURRENT.set(parent);
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Добавляет к области текущего потока счётчики, собранные в другом потоке по его поручению.
+     */
+    public static void include(QueryStatistics other) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null && other != null) {
+            statistics.statements += other.statements;
+            statistics.rows += other.rows;
+            statistics.nanos += other.nanos;
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void recordStatement(long nanos) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.nanos += nanos;
+        }
+    }
+
+    static void recordFetch(boolean row, long nanos) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            if (row) {
+                statistics.rows++;
+            }
+            statistics.nanos += nanos;
+        }
+    }
+}
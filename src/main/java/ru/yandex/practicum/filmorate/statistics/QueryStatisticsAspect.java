@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.statistics;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.yandex.practicum.filmorate.exception.QueryLimitExceededException;
+
+import java.util.Locale;
+
+/**
+ * Считает SQL-запросы каждого вызова REST-контроллера: копит их по методам в {@link QueryStatisticsRegistry},
+ * при включённых заголовках отдаёт в ответе и сообщает о превышении порога запросов.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.statistics.enabled", havingValue = "true")
+@Slf4j
+public class QueryStatisticsAspect {
+    private final QueryStatisticsRegistry registry;
+    private final boolean headers;
+    private final int statementThreshold;
+    private final boolean failOnThreshold;
+
+    public QueryStatisticsAspect(QueryStatisticsRegistry registry,
+                                 @Value("${filmorate.sql.statistics.headers}") boolean headers,
+                                 @Value("${filmorate.sql.statistics.statement-threshold}") int statementThreshold,
+                                 @Value("${filmorate.sql.statistics.fail-on-threshold}") boolean failOnThreshold) {
+        this.registry = registry;
+        this.headers = headers;
+        this.statementThreshold = statementThreshold;
+        this.failOnThreshold = failOnThreshold;
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        String endpoint = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." +
+                joinPoint.getSignature().getName();
+        QueryStatistics statistics = QueryStatistics.start();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            statistics.stop();
+            registry.record(endpoint, statistics);
+            if (headers) {
+                writeHeaders(statistics);
+            }
+        }
+
+        if (statementThreshold > 0 && statistics.getStatements() > statementThreshold) {
+            String message = endpoint + " выполнил " + statistics.getStatements() + " SQL-запросов при пороге " +
+                    statementThreshold;
+            if (failOnThreshold) {
+                throw new QueryLimitExceededException(message);
+            }
+            log.warn(message);
+        }
+        return result;
+    }
+
+    private void writeHeaders(QueryStatistics statistics) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.setHeader("X-Sql-Statements", String.valueOf(statistics.getStatements()));
+            response.setHeader("X-Sql-Rows", String.valueOf(statistics.getRows()));
+            response.setHeader("X-Sql-Time-Ms", String.format(Locale.ROOT, "%.3f", statistics.getNanos() / 1e6));
+        }
+    }
+}
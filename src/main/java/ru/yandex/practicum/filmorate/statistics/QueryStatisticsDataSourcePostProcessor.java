@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.statistics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.JdbcProxies;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Оборачивает {@link DataSource}, чтобы засчитывать в {@link QueryStatistics} выполненные запросы, прочитанные строки
+ * и время работы драйвера. Запросы оборачиваются только внутри открытой области, остальные потоки выполняют
+ * их напрямую.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.statistics.enabled", havingValue = "true")
+public class QueryStatisticsDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+
+        return JdbcProxies.proxy(bean, (method, args) -> {
+            Object result = method.invoke(bean, args);
+            return result instanceof Connection connection ? countingConnection(connection) : result;
+        });
+    }
+
+    private Object countingConnection(Connection connection) {
+        return JdbcProxies.proxy(connection, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            return result instanceof Statement statement && QueryStatistics.isActive()
+                    ? countingStatement(statement)
+                    : result;
+        });
+    }
+
+    private Object countingStatement(Statement statement) {
+        return JdbcProxies.proxy(statement, (method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute") && !name.equals("getResultSet")) {
+                return method.invoke(statement, args);
+            }
+
+            long start = System.nanoTime();
+            Object result = method.invoke(statement, args);
+            if (name.startsWith("execute")) {
+                QueryStatistics.recordStatement(System.nanoTime() - start);
+            }
+            return result instanceof ResultSet resultSet ? countingResultSet(resultSet) : result;
+        });
+    }
+
+    private Object countingResultSet(ResultSet resultSet) {
+        return JdbcProxies.proxy(resultSet, (method, args) -> {
+            if (!method.getName().equals("next")) {
+                return method.invoke(resultSet, args);
+            }
+
+            long start = System.nanoTime();
+            Object result = method.invoke(resultSet, args);
+            QueryStatistics.recordFetch((Boolean) result, System.nanoTime() - start);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.statistics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.statistics.enabled", havingValue = "true")
+@Slf4j
+@RequiredArgsConstructor
+public class QueryStatisticsRegistry {
+    private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public void record(String endpoint, QueryStatistics statistics) {
+        endpoints.computeIfAbsent(endpoint, this::register).add(statistics);
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, counters) -> snapshot.put(endpoint, counters.snapshot()));
+        return snapshot;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.sql.statistics.log-interval}",
+            fixedDelayString = "${filmorate.sql.statistics.log-interval}")
+    public void logStats() {
+        snapshot().forEach((endpoint, stats) -> log.info("SQL {}: вызовов {}, запросов {} (максимум {} за вызов)," +
+                        " строк {}, время в базе {} мс", endpoint, stats.getCalls(), stats.getStatements(),
+                stats.getMaxStatements(), stats.getRows(), stats.getNanos() / 1_000_000));
+    }
+
+    private Counters register(String endpoint) {
+        Counters counters = new Counters();
+        FunctionTimer.builder("filmorate.sql.time", counters, c -> c.calls.sum(), c -> c.nanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        FunctionCounter.builder("filmorate.sql.statements", counters, c -> c.statements.sum())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        FunctionCounter.builder("filmorate.sql.rows", counters, c -> c.rows.sum())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("filmorate.sql.statements.max", counters, c -> c.maxStatements.get())
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return counters;
+    }
+
+    @Value
+    public static class Snapshot {
+        long calls;
+        long statements;
+        int maxStatements;
+        long rows;
+        long nanos;
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicInteger maxStatements = new AtomicInteger();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void add(QueryStatistics statistics) {
+            calls.increment();
+            statements.add(statistics.getStatements());
+            maxStatements.accumulateAndGet(statistics.getStatements(), Math::max);
+            rows.add(statistics.getRows());
+            nanos.add(statistics.getNanos());
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(calls.sum(), statements.sum(), maxStatements.get(), rows.sum(), nanos.sum());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+@Component
+@Profile("!inmemory")
+@Primary
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CachingFilmStorage extends CachingStorage<Film> implements FilmStorage {
+    private final FilmStorage delegate;
+
+    public CachingFilmStorage(@Qualifier("filmDbStorage") FilmStorage delegate,
+                              @Value("${filmorate.cache.films.maximum-size}") long maximumSize,
+                              @Value("${filmorate.cache.films.expire-after-write}") Duration expireAfterWrite) {
+        super(delegate, Film::getId, "films", maximumSize, expireAfterWrite);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        List<Film> created = delegate.createAll(films);
+        for (Film film : created) {
+            invalidate(film.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return delegate.findPopular(count);
+    }
+
+    @Override
+    public boolean hasLike(int filmId, int userId) {
+        return delegate.hasLike(filmId, userId);
+    }
+
+    @Override
+    public Map<Integer, Integer> addLikes(List<Like> likes) {
+        try {
+            return delegate.addLikes(likes);
+        } finally {
+            for (Like like : likes) {
+                invalidate(like.getFilmId());
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> removeLikes(List<Like> likes) {
+        try {
+            return delegate.removeLikes(likes);
+        } finally {
+            for (Like like : likes) {
+                invalidate(like.getFilmId());
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> findLikeCounts() {
+        return delegate.findLikeCounts();
+    }
+
+    @Override
+    public int reconcileLikeCounts() {
+        return delegate.reconcileLikeCounts();
+    }
+
+    @Override
+    public void exportAll(Consumer<Film> consumer) {
+        delegate.exportAll(consumer);
+    }
+
+    @Override
+    protected Film copyOf(Film film) {
+        TreeSet<Genre> genres = new TreeSet<>();
+        for (Genre genre : film.getGenres()) {
+            genres.add(new Genre(genre.getId(), genre.getName()));
+        }
+
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(new Mpa(film.getMpa().getId(), film.getMpa().getName()))
+                .likes(new IntSet(film.getLikes()))
+                .genres(genres)
+                .build();
+    }
+}
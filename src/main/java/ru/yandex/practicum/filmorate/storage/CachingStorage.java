@@ -0,0 +1,208 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+@Slf4j
+public abstract class CachingStorage<T> implements Storage<T>, MeterBinder {
+    private static final int VERSION_STRIPES = 64;
+
+    private final Storage<T> delegate;
+    private final Function<T, Integer> idExtractor;
+    private final String name;
+    private final Cache<Integer, T> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    protected CachingStorage(Storage<T> delegate, Function<T, Integer> idExtractor, String name,
+                             long maximumSize, Duration expireAfterWrite) {
+        this.delegate = delegate;
+        this.idExtractor = idExtractor;
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<T> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<T> findPage(int afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public T create(T obj) {
+        T created = delegate.create(obj);
+        invalidate(created);
+        return created;
+    }
+
+    @Override
+    public T update(T obj) {
+        try {
+            return delegate.update(obj);
+        } finally {
+            invalidate(obj);
+        }
+    }
+
+    @Override
+    public T findById(int id) {
+        return copyOf(cache.get(id, delegate::findById));
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return cache.getIfPresent(id) != null || delegate.existsById(id);
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        List<Integer> unknown = new ArrayList<>();
+        for (Integer id : ids) {
+            if (cache.getIfPresent(id) != null) {
+                existing.add(id);
+            } else {
+                unknown.add(id);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            existing.addAll(delegate.findExistingIds(unknown));
+        }
+        return existing;
+    }
+
+    /**
+     * Недостающие записи загружаются одним запросом. Запись попадает в кэш, только если её не инвалидировали,
+     * пока шла загрузка, иначе кэш мог бы сохранить состояние до записи.
+     */
+    @Override
+    public List<T> findByIds(Collection<Integer> ids) {
+        Map<Integer, T> found = new HashMap<>(cache.getAllPresent(ids));
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (!found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, Long> loadVersions = new HashMap<>();
+            for (Integer id : missing) {
+                loadVersions.put(id, versions.get(stripe(id)));
+            }
+            for (T obj : delegate.findByIds(missing)) {
+                Integer id = idExtractor.apply(obj);
+                found.put(id, obj);
+                cacheIfUnchanged(id, obj, loadVersions.get(id));
+            }
+        }
+
+        List<T> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            T obj = found.get(id);
+            if (obj != null) {
+                result.add(copyOf(obj));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean add(int toId, int whichId) {
+        try {
+            return delegate.add(toId, whichId);
+        } finally {
+            invalidate(toId);
+        }
+    }
+
+    @Override
+    public boolean remove(int fromId, int whichId) {
+        try {
+            return delegate.remove(fromId, whichId);
+        } finally {
+            invalidate(fromId);
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.cache.stats-log-interval}",
+            fixedDelayString = "${filmorate.cache.stats-log-interval}")
+    public void logStats() {
+        CacheStats stats = cache.stats();
+        log.info("Кэш {}: размер {}, попаданий {}, промахов {}, вытеснений {}", name, size(),
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    protected abstract T copyOf(T obj);
+
+    /**
+     * Убирает запись из кэша после изменения в хранилище. Версия поднимается до удаления, чтобы параллельная
+     * загрузка, прочитавшая старое состояние, не вернула его в кэш.
+     */
+    protected void invalidate(int id) {
+        versions.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    private void invalidate(T obj) {
+        Integer id = idExtractor.apply(obj);
+        if (id != null) {
+            invalidate(id);
+        }
+    }
+
+    private void cacheIfUnchanged(Integer id, T obj, Long loadVersion) {
+        cache.asMap().compute(id, (key, cached) ->
+                loadVersion != null && versions.get(stripe(key)) == loadVersion ? obj : cached);
+    }
+
+    private static int stripe(int id) {
+        return Math.floorMod(id, VERSION_STRIPES);
+    }
+}
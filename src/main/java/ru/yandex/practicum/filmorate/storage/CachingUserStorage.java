@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@Profile("!inmemory")
+@Primary
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CachingUserStorage extends CachingStorage<User> implements UserStorage {
+    private final UserStorage delegate;
+
+    public CachingUserStorage(@Qualifier("userDbStorage") UserStorage delegate,
+                              @Value("${filmorate.cache.users.maximum-size}") long maximumSize,
+                              @Value("${filmorate.cache.users.expire-after-write}") Duration expireAfterWrite) {
+        super(delegate, User::getId, "users", maximumSize, expireAfterWrite);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<User> createAll(List<User> users) {
+        List<User> created = delegate.createAll(users);
+        for (User user : created) {
+            invalidate(user.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public int addFriendships(List<Friendship> friendships) {
+        try {
+            return delegate.addFriendships(friendships);
+        } finally {
+            for (Friendship friendship : friendships) {
+                invalidate(friendship.getUserId());
+            }
+        }
+    }
+
+    @Override
+    public List<User> findMutualFriends(int userId, int otherId) {
+        return delegate.findMutualFriends(userId, otherId);
+    }
+
+    @Override
+    public List<User> findFriends(int userId, int afterId, int limit) {
+        return delegate.findFriends(userId, afterId, limit);
+    }
+
+    @Override
+    protected User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .friends(new IntSet(user.getFriends()))
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface FilmStorage extends Storage<Film> {
+
+    List<Film> createAll(List<Film> films);
+
+    List<Film> findPopular(int count);
+
+    boolean hasLike(int filmId, int userId);
+
+    Map<Integer, Integer> addLikes(List<Like> likes);
+
+    Map<Integer, Integer> removeLikes(List<Like> likes);
+
+    Map<Integer, Integer> findLikeCounts();
+
+    int reconcileLikeCounts();
+
+    void exportAll(Consumer<Film> consumer);
+
+}
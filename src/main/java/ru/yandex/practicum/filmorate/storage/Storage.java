@@ -1,19 +1,29 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface Storage<T> {
 
     List<T> findAll();
 
+    List<T> findPage(int afterId, int limit);
+
     T create(T obj);
 
     T update(T obj);
 
     T findById(int id);
 
-    T add(int toId, int whichId);
+    boolean existsById(int id);
+
+    Set<Integer> findExistingIds(Collection<Integer> ids);
+
+    List<T> findByIds(Collection<Integer> ids);
+
+    boolean add(int toId, int whichId);
 
-    T remove(int fromId, int whichId);
+    boolean remove(int fromId, int whichId);
 
 }
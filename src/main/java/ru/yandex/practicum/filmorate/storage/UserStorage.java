@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+public interface UserStorage extends Storage<User> {
+
+    List<User> createAll(List<User> users);
+
+    int addFriendships(List<Friendship> friendships);
+
+    List<User> findMutualFriends(int userId, int otherId);
+
+    List<User> findFriends(int userId, int afterId, int limit);
+
+}
@@ -0,0 +1,234 @@
+package ru.yandex.practicum.filmorate.storage.inmemory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryFilmStorage implements FilmStorage {
+    private final GenreDbStorage genreStorage;
+    private final MpaDbStorage mpaStorage;
+
+    private final ConcurrentNavigableMap<Integer, FilmEntry> films = new ConcurrentSkipListMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    @Override
+    public List<Film> findAll() {
+        return toFilms(films.values());
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        return toFilms(films.tailMap(afterId, false).values().stream().limit(limit).toList());
+    }
+
+    @Override
+    public Film create(Film film) {
+        film.setId(lastId.incrementAndGet());
+        genreStorage.addGenresToFilms(List.of(film));
+        films.put(film.getId(), new FilmEntry(copyOf(film)));
+        return film;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        films.forEach(this::create);
+        return films;
+    }
+
+    @Override
+    public Film update(Film film) {
+        entry(film.getId()).film = copyOf(film);
+        genreStorage.updateFilmGenre(film);
+        return film;
+    }
+
+    @Override
+    public Film findById(int id) {
+        return toFilm(entry(id));
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        for (Integer id : ids) {
+            if (films.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        Map<Integer, Integer> likeCounts = findLikeCounts();
+        return likeCounts.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(entry -> films.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .map(this::toFilm)
+                .toList();
+    }
+
+    @Override
+    public List<Film> findByIds(Collection<Integer> ids) {
+        List<Film> found = new ArrayList<>();
+        for (Integer id : ids) {
+            FilmEntry entry = films.get(id);
+            if (entry != null) {
+                found.add(toFilm(entry));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean hasLike(int filmId, int userId) {
+        FilmEntry entry = films.get(filmId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            return entry.likes.contains(userId);
+        }
+    }
+
+    @Override
+    public boolean add(int filmId, int userId) {
+        FilmEntry entry = entry(filmId);
+        synchronized (entry) {
+            return entry.likes.add(userId);
+        }
+    }
+
+    @Override
+    public boolean remove(int filmId, int userId) {
+        FilmEntry entry = entry(filmId);
+        synchronized (entry) {
+            return entry.likes.remove(userId);
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> addLikes(List<Like> likes) {
+        Map<Integer, Integer> added = new HashMap<>();
+        for (Like like : likes) {
+            if (add(like.getFilmId(), like.getUserId())) {
+                added.merge(like.getFilmId(), 1, Integer::sum);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public Map<Integer, Integer> removeLikes(List<Like> likes) {
+        Map<Integer, Integer> removed = new HashMap<>();
+        for (Like like : likes) {
+            if (remove(like.getFilmId(), like.getUserId())) {
+                removed.merge(like.getFilmId(), 1, Integer::sum);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<Integer, Integer> findLikeCounts() {
+        Map<Integer, Integer> likeCounts = new HashMap<>();
+        for (FilmEntry entry : films.values()) {
+            synchronized (entry) {
+                likeCounts.put(entry.film.getId(), entry.likes.size());
+            }
+        }
+        return likeCounts;
+    }
+
+    @Override
+    public int reconcileLikeCounts() {
+        return 0;
+    }
+
+    @Override
+    public void exportAll(Consumer<Film> consumer) {
+        for (FilmEntry entry : films.values()) {
+            consumer.accept(toFilm(entry));
+        }
+    }
+
+    private FilmEntry entry(int id) {
+        FilmEntry entry = films.get(id);
+        if (entry == null) {
+            throw new DoesNotExistsException("Фильм с id " + id + " не найден");
+        }
+        return entry;
+    }
+
+    private List<Film> toFilms(Collection<FilmEntry> entries) {
+        List<Film> result = new ArrayList<>(entries.size());
+        for (FilmEntry entry : entries) {
+            result.add(toFilm(entry));
+        }
+        return result;
+    }
+
+    private Film toFilm(FilmEntry entry) {
+        Film stored = entry.film;
+        IntSet likes;
+        synchronized (entry) {
+            likes = new IntSet(entry.likes);
+        }
+
+        return Film.builder()
+                .id(stored.getId())
+                .name(stored.getName())
+                .description(stored.getDescription())
+                .releaseDate(stored.getReleaseDate())
+                .duration(stored.getDuration())
+                .mpa(mpaStorage.findById(stored.getMpa().getId()))
+                .likes(likes)
+                .genres(new TreeSet<>(genreStorage.findByFilmId(stored.getId())))
+                .build();
+    }
+
+    private Film copyOf(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(new Mpa(film.getMpa().getId(), null))
+                .build();
+    }
+
+    private static final class FilmEntry {
+        private volatile Film film;
+        private final IntSet likes = new IntSet();
+
+        private FilmEntry(Film film) {
+            this.film = film;
+        }
+    }
+}
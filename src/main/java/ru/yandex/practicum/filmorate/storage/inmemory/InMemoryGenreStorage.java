@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.storage.inmemory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.IntSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("inmemory")
+public class InMemoryGenreStorage implements GenreDbStorage {
+    private static final int[] NO_GENRES = new int[0];
+    private static final List<Genre> GENRES = List.of(
+            new Genre(1, "Комедия"),
+            new Genre(2, "Драма"),
+            new Genre(3, "Мультфильм"),
+            new Genre(4, "Триллер"),
+            new Genre(5, "Документальный"),
+            new Genre(6, "Боевик"));
+
+    private final Map<Integer, int[]> filmGenres = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Genre> findAll() {
+        return GENRES;
+    }
+
+    @Override
+    public Genre findById(int id) {
+        if (!existsById(id)) {
+            throw new DoesNotExistsException("Жанр с запрошенным идентификатором не найден");
+        }
+        return GENRES.get(id - 1);
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return id >= 1 && id <= GENRES.size();
+    }
+
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public List<Genre> findByFilmId(int filmId) {
+        int[] genreIds = filmGenres.getOrDefault(filmId, NO_GENRES);
+        List<Genre> genres = new ArrayList<>(genreIds.length);
+        for (int genreId : genreIds) {
+            genres.add(findById(genreId));
+        }
+        return genres;
+    }
+
+    @Override
+    public void addGenreToTheFilm(int filmId, List<Genre> genres) {
+        filmGenres.compute(filmId, (id, stored) -> {
+            IntSet genreIds = new IntSet();
+            for (int genreId : stored == null ? NO_GENRES : stored) {
+                genreIds.add(genreId);
+            }
+            for (Genre genre : genres) {
+                genreIds.add(genre.getId());
+            }
+            return genreIds.toIntArray();
+        });
+    }
+
+    @Override
+    public void addGenresToFilms(Collection<Film> films) {
+        for (Film film : films) {
+            if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+                addGenreToTheFilm(film.getId(), new ArrayList<>(film.getGenres()));
+            }
+        }
+    }
+
+    @Override
+    public void updateFilmGenre(Film film) {
+        IntSet genreIds = new IntSet();
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                genreIds.add(genre.getId());
+            }
+        }
+
+        if (genreIds.isEmpty()) {
+            filmGenres.remove(film.getId());
+        } else {
+            filmGenres.put(film.getId(), genreIds.toIntArray());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.storage.inmemory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.List;
+
+@Component
+@Profile("inmemory")
+public class InMemoryMpaStorage implements MpaDbStorage {
+    private static final List<Mpa> MPA = List.of(
+            new Mpa(1, "G"),
+            new Mpa(2, "PG"),
+            new Mpa(3, "PG-13"),
+            new Mpa(4, "R"),
+            new Mpa(5, "NC-17"));
+
+    @Override
+    public List<Mpa> findAll() {
+        return MPA;
+    }
+
+    @Override
+    public Mpa findById(int id) {
+        if (!existsById(id)) {
+            throw new DoesNotExistsException("Возрастной рейтинг с идентификатором " + id + " не найден");
+        }
+        return MPA.get(id - 1);
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return id >= 1 && id <= MPA.size();
+    }
+
+    @Override
+    public void invalidate() {
+    }
+}
@@ -0,0 +1,272 @@
+package ru.yandex.practicum.filmorate.storage.inmemory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Profile("inmemory")
+public class InMemoryUserStorage implements UserStorage {
+    private final ConcurrentNavigableMap<Integer, UserEntry> users = new ConcurrentSkipListMap<>();
+    private final Map<String, Integer> emails = new ConcurrentHashMap<>();
+    private final Map<String, Integer> logins = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    @Override
+    public List<User> findAll() {
+        return toUsers(users.values());
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        return toUsers(users.tailMap(afterId, false).values().stream().limit(limit).toList());
+    }
+
+    @Override
+    public User create(User user) {
+        int id = lastId.incrementAndGet();
+        reserve(emails, user.getEmail(), id, "email");
+        try {
+            reserve(logins, user.getLogin(), id, "логином");
+        } catch (DuplicateKeyException e) {
+            emails.remove(user.getEmail(), id);
+            throw e;
+        }
+
+        user.setId(id);
+        users.put(id, new UserEntry(copyOf(user)));
+        return user;
+    }
+
+    @Override
+    public List<User> createAll(List<User> users) {
+        List<User> created = new ArrayList<>(users.size());
+        try {
+            for (User user : users) {
+                created.add(create(user));
+            }
+        } catch (RuntimeException e) {
+            created.forEach(this::delete);
+            throw e;
+        }
+        return users;
+    }
+
+    @Override
+    public User update(User user) {
+        UserEntry entry = entry(user.getId());
+        synchronized (entry) {
+            User stored = entry.user;
+            boolean emailChanged = !stored.getEmail().equals(user.getEmail());
+            boolean loginChanged = !stored.getLogin().equals(user.getLogin());
+
+            if (emailChanged) {
+                reserve(emails, user.getEmail(), user.getId(), "email");
+            }
+            if (loginChanged) {
+                try {
+                    reserve(logins, user.getLogin(), user.getId(), "логином");
+                } catch (DuplicateKeyException e) {
+                    if (emailChanged) {
+                        emails.remove(user.getEmail(), user.getId());
+                    }
+                    throw e;
+                }
+            }
+
+            if (emailChanged) {
+                emails.remove(stored.getEmail(), user.getId());
+            }
+            if (loginChanged) {
+                logins.remove(stored.getLogin(), user.getId());
+            }
+            entry.user = copyOf(user);
+        }
+        return user;
+    }
+
+    @Override
+    public User findById(int id) {
+        UserEntry entry = users.get(id);
+        if (entry == null) {
+            throw new EmptyResultDataAccessException(1);
+        }
+        return toUser(entry);
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        for (Integer id : ids) {
+            if (users.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Integer> ids) {
+        List<User> found = new ArrayList<>();
+        for (Integer id : ids) {
+            UserEntry entry = users.get(id);
+            if (entry != null) {
+                found.add(toUser(entry));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean add(int userId, int friendId) {
+        UserEntry entry = entry(userId);
+        entry(friendId);
+        synchronized (entry) {
+            return entry.friends.add(friendId);
+        }
+    }
+
+    @Override
+    public boolean remove(int userId, int friendId) {
+        UserEntry entry = users.get(userId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            return entry.friends.remove(friendId);
+        }
+    }
+
+    @Override
+    public int addFriendships(List<Friendship> friendships) {
+        int added = 0;
+        for (Friendship friendship : friendships) {
+            if (add(friendship.getUserId(), friendship.getFriendId())) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public List<User> findMutualFriends(int userId, int otherId) {
+        UserEntry user = users.get(userId);
+        UserEntry other = users.get(otherId);
+        if (user == null || other == null) {
+            return new ArrayList<>();
+        }
+
+        List<User> mutual = new ArrayList<>();
+        for (int friendId : friendsOf(user).intersect(friendsOf(other)).toIntArray()) {
+            UserEntry friend = users.get(friendId);
+            if (friend != null) {
+                mutual.add(toUser(friend));
+            }
+        }
+        return mutual;
+    }
+
+    @Override
+    public List<User> findFriends(int userId, int afterId, int limit) {
+        UserEntry user = users.get(userId);
+        if (user == null) {
+            return new ArrayList<>();
+        }
+
+        int[] friendIds = friendsOf(user).toIntArray();
+        int from = Arrays.binarySearch(friendIds, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+
+        List<User> friends = new ArrayList<>();
+        for (int i = from; i < friendIds.length && friends.size() < limit; i++) {
+            UserEntry friend = users.get(friendIds[i]);
+            if (friend != null) {
+                friends.add(toUser(friend));
+            }
+        }
+        return friends;
+    }
+
+    private void reserve(Map<String, Integer> index, String key, int id, String field) {
+        Integer owner = index.putIfAbsent(key, id);
+        if (owner != null && owner != id) {
+            throw new DuplicateKeyException("Пользователь с " + field + " " + key + " уже существует");
+        }
+    }
+
+    private void delete(User user) {
+        users.remove(user.getId());
+        emails.remove(user.getEmail(), user.getId());
+        logins.remove(user.getLogin(), user.getId());
+    }
+
+    private UserEntry entry(int id) {
+        UserEntry entry = users.get(id);
+        if (entry == null) {
+            throw new DoesNotExistsException("Пользователь с id " + id + " не найден");
+        }
+        return entry;
+    }
+
+    private IntSet friendsOf(UserEntry entry) {
+        synchronized (entry) {
+            return new IntSet(entry.friends);
+        }
+    }
+
+    private List<User> toUsers(Collection<UserEntry> entries) {
+        List<User> result = new ArrayList<>(entries.size());
+        for (UserEntry entry : entries) {
+            result.add(toUser(entry));
+        }
+        return result;
+    }
+
+    private User toUser(UserEntry entry) {
+        User stored = entry.user;
+        return User.builder()
+                .id(stored.getId())
+                .email(stored.getEmail())
+                .login(stored.getLogin())
+                .name(stored.getName())
+                .birthday(stored.getBirthday())
+                .friends(friendsOf(entry))
+                .build();
+    }
+
+    private User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .build();
+    }
+
+    private static final class UserEntry {
+        private volatile User user;
+        private final IntSet friends = new IntSet();
+
+        private UserEntry(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -14,6 +14,8 @@ CREATE TABLE IF NOT EXISTS friends (
     CONSTRAINT pk_friends PRIMARY KEY (user_id, friend_id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_friends_friend_user ON friends (friend_id, user_id);
+
 CREATE TABLE IF NOT EXISTS mpa (
     mpa_id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name varchar(20) NOT NULL UNIQUE
@@ -30,9 +32,12 @@ CREATE TABLE IF NOT EXISTS films (
     description varchar(200),
     mpa_id integer NOT NULL REFERENCES mpa (mpa_id) ON DELETE CASCADE,
     release_date date,
-    duration integer
+    duration integer,
+    like_count integer NOT NULL DEFAULT 0
 );
 
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, film_id);
+
 CREATE TABLE IF NOT EXISTS film_genres (
     film_id integer NOT NULL REFERENCES films (film_id) ON DELETE CASCADE,
     genre_id integer NOT NULL REFERENCES genres (genre_id) ON DELETE CASCADE,
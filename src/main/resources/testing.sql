@@ -46,4 +46,6 @@ INSERT INTO likes(film_id, user_id) VALUES(1, 1), (1, 2), (1, 3), (1, 4), (1, 5)
 INSERT INTO likes(film_id, user_id) VALUES(2, 1), (2, 4);
 INSERT INTO likes(film_id, user_id) VALUES(3, 1), (3, 3), (3, 4);
 INSERT INTO likes(film_id, user_id) VALUES(4, 1);
-INSERT INTO likes(film_id, user_id) VALUES(5, 5);
\ No newline at end of file
+INSERT INTO likes(film_id, user_id) VALUES(5, 5);
+
+UPDATE films AS f SET like_count = (SELECT COUNT(*) FROM likes AS l WHERE l.film_id = f.film_id);
\ No newline at end of file
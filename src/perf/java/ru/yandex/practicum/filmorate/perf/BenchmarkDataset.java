@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Приложение с набором данных для бенчмарков. Набор всегда генерируется в H2 с одним и тем же зерном; при
+ * {@code storage=inmemory} он затем переносится в хранилища в памяти, так что обе реализации сравниваются на
+ * одинаковых данных.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+    static final int WRITER_USERS = 100;
+
+    static final String H2 = "h2";
+    static final String IN_MEMORY = "inmemory";
+
+    @Param({H2, IN_MEMORY})
+    public String storage;
+
+    @Param({"1000", "100000", "1000000"})
+    public int likes;
+
+    @Param({"false"})
+    public boolean cache;
+
+    @Param({"false"})
+    public boolean parallelHydration;
+
+    @Param({"0"})
+    public int latencyMicros;
+
+    int films;
+    int users;
+    FilmStorage filmStorage;
+    FilmService filmService;
+    UserService userService;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        films = Math.max(100, likes / 100);
+        users = Math.max(200, likes / 50) + WRITER_USERS;
+
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .profiles(IN_MEMORY.equals(storage) ? new String[]{IN_MEMORY} : new String[0])
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(
+                        new SimulatedLatency(Duration.ofNanos(latencyMicros * 1000L))))
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=always",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--filmorate.cache.enabled=" + cache,
+                        "--filmorate.hydration.parallel=" + parallelHydration);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new DatasetGenerator(jdbcTemplate).generate(DatasetSpec.builder()
+                .films(films)
+                .users(users)
+                .likes(likes)
+                .idleUsers(WRITER_USERS)
+                .build());
+
+        filmStorage = context.getBean(FilmStorage.class);
+        if (IN_MEMORY.equals(storage)) {
+            new StorageDatasetLoader(jdbcTemplate, filmStorage, context.getBean(UserStorage.class)).load();
+        }
+        context.getBean(PopularityLeaderboard.class).rebuild();
+
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    int randomFilm() {
+        return ThreadLocalRandom.current().nextInt(films) + 1;
+    }
+
+    int randomUser() {
+        return ThreadLocalRandom.current().nextInt(users - WRITER_USERS) + 1;
+    }
+
+    int randomWriter() {
+        return users - ThreadLocalRandom.current().nextInt(WRITER_USERS);
+    }
+}
@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.IntSet;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetGenerator {
+    private static final int BATCH_SIZE = 1000;
+    private static final int GENRES = 6;
+    private static final int MPA = 5;
+    private static final LocalDate EPOCH = LocalDate.of(1950, 1, 1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Dataset generate(DatasetSpec spec) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Генератор заполняет только пустую базу, а в ней уже " + existing +
+                    " фильмов");
+        }
+
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+
+        insertFilms(spec, random.split());
+        insertUsers(spec);
+        int friendships = insertFriends(spec, random.split());
+        ZipfDistribution popularity = new ZipfDistribution(spec.getFilms(), spec.getPopularitySkew(), random.split());
+        int likes = insertLikes(spec, popularity, random.split());
+        jdbcTemplate.update("UPDATE films AS f SET like_count = (SELECT COUNT(*) FROM likes AS l" +
+                " WHERE l.film_id = f.film_id)");
+
+        log.info("Сгенерировано фильмов: {}, пользователей: {}, дружб: {}, лайков: {} за {} мс", spec.getFilms(),
+                spec.getUsers(), friendships, likes, (System.nanoTime() - start) / 1_000_000);
+        return new Dataset(spec, popularity, likes, friendships);
+    }
+
+    private void insertFilms(DatasetSpec spec, SplittableRandom random) {
+        jdbcTemplate.batchUpdate("INSERT INTO films (name, description, mpa_id, release_date, duration)" +
+                        " VALUES (?, ?, ?, ?, ?)", IntStream.rangeClosed(1, spec.getFilms()).boxed().toList(),
+                BATCH_SIZE, (ps, id) -> {
+                    ps.setString(1, "Фильм " + id);
+                    ps.setString(2, "Описание фильма " + id);
+                    ps.setInt(3, random.nextInt(MPA) + 1);
+                    ps.setDate(4, Date.valueOf(EPOCH.plusDays(random.nextInt(365 * 70))));
+                    ps.setInt(5, 60 + random.nextInt(120));
+                });
+
+        try (PairWriter filmGenres = new PairWriter("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)")) {
+            for (int filmId = 1; filmId <= spec.getFilms(); filmId++) {
+                IntSet genres = new IntSet();
+                int count = 1 + random.nextInt(3);
+                while (genres.size() < count) {
+                    genres.add(random.nextInt(GENRES) + 1);
+                }
+                for (int genreId : genres.toIntArray()) {
+                    filmGenres.add(filmId, genreId);
+                }
+            }
+        }
+    }
+
+    private void insertUsers(DatasetSpec spec) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                IntStream.rangeClosed(1, spec.getUsers()).boxed().toList(), BATCH_SIZE, (ps, id) -> {
+                    ps.setString(1, "user" + id + "@filmorate.ru");
+                    ps.setString(2, "user" + id);
+                    ps.setString(3, "Пользователь " + id);
+                    ps.setDate(4, Date.valueOf(EPOCH.plusDays(id % (365 * 50))));
+                });
+    }
+
+    private int insertFriends(DatasetSpec spec, SplittableRandom random) {
+        int users = spec.getUsers();
+        int clusterSize = Math.max(1, spec.getClusterSize());
+        int friendships = 0;
+
+        try (PairWriter friends = new PairWriter("INSERT INTO friends (user_id, friend_id) VALUES (?, ?)")) {
+            for (int userId = 1; userId <= users; userId++) {
+                int clusterStart = (userId - 1) / clusterSize * clusterSize + 1;
+                int clusterUsers = Math.min(clusterSize, users - clusterStart + 1);
+                int degree = Math.min(random.nextInt(2 * spec.getFriendsPerUser() + 1), users - 1);
+
+                IntSet chosen = new IntSet();
+                for (int attempt = 0; chosen.size() < degree && attempt < degree * 10; attempt++) {
+                    int friendId = clusterUsers > 1 && random.nextDouble() < spec.getClusterAffinity()
+                            ? clusterStart + random.nextInt(clusterUsers)
+                            : random.nextInt(users) + 1;
+                    if (friendId != userId) {
+                        chosen.add(friendId);
+                    }
+                }
+
+                for (int friendId : chosen.toIntArray()) {
+                    friends.add(userId, friendId);
+                }
+                friendships += chosen.size();
+            }
+        }
+        return friendships;
+    }
+
+    private int insertLikes(DatasetSpec spec, ZipfDistribution popularity, SplittableRandom random) {
+        int activeUsers = spec.activeUsers();
+        int[] likesByRank = new int[spec.getFilms()];
+        for (int i = 0; i < spec.getLikes(); i++) {
+            likesByRank[popularity.sampleRank(random)]++;
+        }
+
+        int overflow = 0;
+        int[] likesByFilm = new int[spec.getFilms() + 1];
+        for (int rank = 0; rank < likesByRank.length; rank++) {
+            int count = likesByRank[rank] + overflow;
+            overflow = Math.max(0, count - activeUsers);
+            likesByFilm[popularity.idOfRank(rank)] = Math.min(count, activeUsers);
+        }
+
+        int[] userPool = IntStream.rangeClosed(1, activeUsers).toArray();
+        int likes = 0;
+        try (PairWriter writer = new PairWriter("INSERT INTO likes (film_id, user_id) VALUES (?, ?)")) {
+            for (int filmId = 1; filmId <= spec.getFilms(); filmId++) {
+                int count = likesByFilm[filmId];
+                for (int i = 0; i < count; i++) {
+                    int j = i + random.nextInt(activeUsers - i);
+                    int userId = userPool[j];
+                    userPool[j] = userPool[i];
+                    userPool[i] = userId;
+                }
+
+                int[] users = Arrays.copyOf(userPool, count);
+                Arrays.sort(users);
+                for (int userId : users) {
+                    writer.add(filmId, userId);
+                }
+                likes += count;
+            }
+        }
+        return likes;
+    }
+
+    private final class PairWriter implements AutoCloseable {
+        private final String sql;
+        private final int[] first = new int[BATCH_SIZE];
+        private final int[] second = new int[BATCH_SIZE];
+        private int size;
+
+        private PairWriter(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(int a, int b) {
+            first[size] = a;
+            second[size] = b;
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+
+            int batchSize = size;
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setInt(1, first[i]);
+                    ps.setInt(2, second[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batchSize;
+                }
+            });
+            size = 0;
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+
+    @Value
+    public static class Dataset {
+        DatasetSpec spec;
+        ZipfDistribution popularity;
+        int likes;
+        int friendships;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.core.env.PropertyResolver;
+
+@Data
+@Builder
+public class DatasetSpec {
+    @Builder.Default
+    private int users = 20_000;
+    @Builder.Default
+    private int films = 10_000;
+    @Builder.Default
+    private int likes = 1_000_000;
+    @Builder.Default
+    private int friendsPerUser = 20;
+    @Builder.Default
+    private double popularitySkew = 1.0;
+    @Builder.Default
+    private int clusterSize = 50;
+    @Builder.Default
+    private double clusterAffinity = 0.8;
+    private int idleUsers;
+    @Builder.Default
+    private long seed = 42;
+
+    public static DatasetSpec from(PropertyResolver properties) {
+        DatasetSpec defaults = DatasetSpec.builder().build();
+        return DatasetSpec.builder()
+                .users(properties.getProperty("dataset.users", Integer.class, defaults.users))
+                .films(properties.getProperty("dataset.films", Integer.class, defaults.films))
+                .likes(properties.getProperty("dataset.likes", Integer.class, defaults.likes))
+                .friendsPerUser(properties.getProperty("dataset.friends-per-user", Integer.class,
+                        defaults.friendsPerUser))
+                .popularitySkew(properties.getProperty("dataset.popularity-skew", Double.class,
+                        defaults.popularitySkew))
+                .clusterSize(properties.getProperty("dataset.cluster-size", Integer.class, defaults.clusterSize))
+                .clusterAffinity(properties.getProperty("dataset.cluster-affinity", Double.class,
+                        defaults.clusterAffinity))
+                .idleUsers(properties.getProperty("dataset.idle-users", Integer.class, defaults.idleUsers))
+                .seed(properties.getProperty("dataset.seed", Long.class, defaults.seed))
+                .build();
+    }
+
+    public int activeUsers() {
+        return users - idleUsers;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmBenchmark {
+
+    @Benchmark
+    public List<Film> findAll(BenchmarkDataset dataset) {
+        return dataset.filmStorage.findAll();
+    }
+
+    @Benchmark
+    public Film findById(BenchmarkDataset dataset) {
+        return dataset.filmStorage.findById(dataset.randomFilm());
+    }
+
+    @Benchmark
+    public List<Film> findTopLiked(BenchmarkDataset dataset) {
+        return dataset.filmService.findTopLiked(10);
+    }
+
+    @Benchmark
+    public void likeAndUnlike(BenchmarkDataset dataset) {
+        FilmService filmService = dataset.filmService;
+        int filmId = dataset.randomFilm();
+        int userId = dataset.randomWriter();
+        filmService.add(filmId, userId);
+        filmService.remove(filmId, userId);
+    }
+}
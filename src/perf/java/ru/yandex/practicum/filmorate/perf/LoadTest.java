@@ -0,0 +1,265 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Поднимает приложение на встроенной H2, заполняет её генератором и нагружает REST-контроллеры одним из
+ * сценариев, после чего печатает пропускную способность и перцентили задержек по каждому запросу.
+ */
+public class LoadTest {
+    private static final Map<String, String> DEFAULT_ARGS = Map.of(
+            "server.port", "0",
+            "spring.datasource.url", "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+            "spring.main.banner-mode", "off",
+            "logging.level.root", "WARN",
+            "logging.level.ru.yandex.practicum.filmorate.perf", "INFO");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new LinkedHashMap<>(DEFAULT_ARGS);
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            arguments.put(separator < 0 ? option : option.substring(0, separator),
+                    separator < 0 ? "true" : option.substring(separator + 1));
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run(arguments.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue())
+                        .toArray(String[]::new))) {
+            Environment environment = context.getEnvironment();
+            DatasetGenerator.Dataset dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class))
+                    .generate(DatasetSpec.from(environment));
+            context.getBean(PopularityLeaderboard.class).rebuild();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String scenarioName = environment.getProperty("load.scenario", "catalog");
+            if (scenarioName.equals("none")) {
+                System.out.println("Приложение с данными доступно на http://localhost:" + port +
+                        ", остановка по Ctrl+C");
+                Thread.currentThread().join();
+            }
+
+            Scenario scenario = Scenario.valueOf(scenarioName.toUpperCase().replace('-', '_'));
+            new LoadTest(URI.create("http://localhost:" + port), dataset,
+                    environment.getProperty("load.threads", Integer.class, 16),
+                    environment.getProperty("load.warmup", Duration.class, Duration.ofSeconds(10)),
+                    environment.getProperty("load.duration", Duration.class, Duration.ofSeconds(30)))
+                    .run(scenario);
+        }
+    }
+
+    private final URI baseUri;
+    private final DatasetGenerator.Dataset dataset;
+    private final int threads;
+    private final Duration warmup;
+    private final Duration duration;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private LoadTest(URI baseUri, DatasetGenerator.Dataset dataset, int threads, Duration warmup,
+                     Duration duration) {
+        this.baseUri = baseUri;
+        this.dataset = dataset;
+        this.threads = threads;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    private void run(Scenario scenario) throws Exception {
+        System.out.printf("Сценарий %s: %d потоков, прогрев %s, замер %s%n", scenario, threads, warmup, duration);
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        SplittableRandom seeds = new SplittableRandom(dataset.getSpec().getSeed());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<String, Latencies>>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = seeds.split();
+            workers.add(executor.submit(() -> drive(scenario, random, measureFrom, measureUntil)));
+        }
+
+        Map<String, Latencies> results = new TreeMap<>();
+        for (Future<Map<String, Latencies>> worker : workers) {
+            worker.get().forEach((name, latencies) -> results.merge(name, latencies, Latencies::merge));
+        }
+        executor.shutdown();
+
+        report(results, duration);
+    }
+
+    private Map<String, Latencies> drive(Scenario scenario, SplittableRandom random, long measureFrom,
+                                         long measureUntil) throws InterruptedException {
+        Map<String, Latencies> latencies = new HashMap<>();
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            Operation operation = scenario.pick(random);
+            HttpRequest request = operation.request.apply(new Target(baseUri, dataset), random);
+
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            }
+
+            long elapsed = System.nanoTime() - now;
+            if (now >= measureFrom) {
+                latencies.computeIfAbsent(operation.name, name -> new Latencies()).record(elapsed, failed);
+            }
+        }
+        return latencies;
+    }
+
+    private static void report(Map<String, Latencies> results, Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        Latencies total = new Latencies();
+        System.out.printf("%-42s %9s %7s %9s %8s %8s %8s %8s %8s%n", "Запрос", "Всего", "Ошибок", "Запр/с",
+                "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс");
+        results.forEach((name, latencies) -> {
+            print(name, latencies, seconds);
+            total.merge(latencies);
+        });
+        print("Итого", total, seconds);
+    }
+
+    private static void print(String name, Latencies latencies, double seconds) {
+        long[] sorted = latencies.sorted();
+        System.out.printf("%-42s %9d %7d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, sorted.length,
+                latencies.errors, sorted.length / seconds, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private enum Scenario {
+        CATALOG(
+                new Operation("GET /films/{id}", 70, (t, r) -> t.get("/films/" + t.popularFilm(r))),
+                new Operation("GET /films?after={id}&limit=50", 20,
+                        (t, r) -> t.get("/films?after=" + r.nextInt(t.films()) + "&limit=50")),
+                new Operation("GET /films/popular?count=10", 10, (t, r) -> t.get("/films/popular?count=10"))),
+        LIKE_STORM(
+                new Operation("PUT /films/{id}/like/{userId}", 70,
+                        (t, r) -> t.send("PUT", "/films/" + t.popularFilm(r) + "/like/" + t.user(r))),
+                new Operation("DELETE /films/{id}/like/{userId}", 20,
+                        (t, r) -> t.send("DELETE", "/films/" + t.popularFilm(r) + "/like/" + t.user(r))),
+                new Operation("GET /films/popular?count=10", 10, (t, r) -> t.get("/films/popular?count=10"))),
+        SOCIAL_GRAPH(
+                new Operation("GET /users/{id}", 10, (t, r) -> t.get("/users/" + t.user(r))),
+                new Operation("GET /users/{id}/friends", 50, (t, r) -> t.get("/users/" + t.user(r) + "/friends")),
+                new Operation("GET /users/{id}/friends/common/{otherId}", 30, (t, r) -> {
+                    int userId = t.user(r);
+                    return t.get("/users/" + userId + "/friends/common/" + t.clusterMate(userId, r));
+                }),
+                new Operation("PUT /users/{id}/friends/{friendId}", 10, (t, r) -> {
+                    int userId = t.user(r);
+                    return t.send("PUT", "/users/" + userId + "/friends/" + t.clusterMate(userId, r));
+                }));
+
+        private final Operation[] operations;
+        private final int totalWeight;
+
+        Scenario(Operation... operations) {
+            this.operations = operations;
+            this.totalWeight = Arrays.stream(operations).mapToInt(operation -> operation.weight).sum();
+        }
+
+        private Operation pick(SplittableRandom random) {
+            int point = random.nextInt(totalWeight);
+            for (Operation operation : operations) {
+                point -= operation.weight;
+                if (point < 0) {
+                    return operation;
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    private record Operation(String name, int weight, BiFunction<Target, SplittableRandom, HttpRequest> request) {
+    }
+
+    private record Target(URI baseUri, DatasetGenerator.Dataset dataset) {
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+        }
+
+        private HttpRequest send(String method, String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+
+        private int films() {
+            return dataset.getSpec().getFilms();
+        }
+
+        private int popularFilm(SplittableRandom random) {
+            return dataset.getPopularity().sample(random);
+        }
+
+        private int user(SplittableRandom random) {
+            return random.nextInt(dataset.getSpec().getUsers()) + 1;
+        }
+
+        private int clusterMate(int userId, SplittableRandom random) {
+            DatasetSpec spec = dataset.getSpec();
+            int clusterSize = Math.max(1, spec.getClusterSize());
+            int clusterStart = (userId - 1) / clusterSize * clusterSize + 1;
+            return clusterStart + random.nextInt(Math.min(clusterSize, spec.getUsers() - clusterStart + 1));
+        }
+    }
+
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+        private int errors;
+
+        private void record(long nanos, boolean failed) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        private Latencies merge(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.values[i], false);
+            }
+            errors += other.errors;
+            return this;
+        }
+
+        private long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import ru.yandex.practicum.filmorate.dao.JdbcProxies;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Добавляет к каждому выполнению запроса задержку сети до базы, которой нет у встроенной H2. Без неё
+ * последовательная и параллельная загрузка фильма упираются в процессор, а не в ожидание ответа.
+ */
+public class SimulatedLatency implements BeanPostProcessor {
+    private final long nanos;
+
+    public SimulatedLatency(Duration latency) {
+        this.nanos = latency.toNanos();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || nanos == 0) {
+            return bean;
+        }
+
+        return JdbcProxies.proxy(bean, (method, args) -> {
+            Object result = method.invoke(bean, args);
+            return result instanceof Connection connection ? delayedConnection(connection) : result;
+        });
+    }
+
+    private Object delayedConnection(Connection connection) {
+        return JdbcProxies.proxy(connection, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            return result instanceof Statement statement ? delayedStatement(statement) : result;
+        });
+    }
+
+    private Object delayedStatement(Statement statement) {
+        return JdbcProxies.proxy(statement, (method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                LockSupport.parkNanos(nanos);
+            }
+            return method.invoke(statement, args);
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Переносит набор данных, сгенерированный {@link DatasetGenerator} в H2, в хранилища приложения через их API. Так
+ * хранилища без SQL получают те же фильмы, пользователей, дружбы и лайки с теми же идентификаторами.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StorageDatasetLoader {
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    public void load() {
+        long start = System.nanoTime();
+
+        userStorage.createAll(jdbcTemplate.query("SELECT email, login, name, birthday FROM users ORDER BY user_id",
+                (rs, rowNum) -> User.builder()
+                        .email(rs.getString("email"))
+                        .login(rs.getString("login"))
+                        .name(rs.getString("name"))
+                        .birthday(rs.getDate("birthday").toLocalDate())
+                        .build()));
+
+        Map<Integer, Set<Genre>> genres = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genres", rs -> {
+            genres.computeIfAbsent(rs.getInt("film_id"), id -> new HashSet<>())
+                    .add(new Genre(rs.getInt("genre_id"), null));
+        });
+        filmStorage.createAll(jdbcTemplate.query("SELECT film_id, name, description, mpa_id, release_date, duration" +
+                " FROM films ORDER BY film_id", (rs, rowNum) -> Film.builder()
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .mpa(new Mpa(rs.getInt("mpa_id"), null))
+                .releaseDate(rs.getDate("release_date").toLocalDate())
+                .duration(rs.getLong("duration"))
+                .genres(genres.getOrDefault(rs.getInt("film_id"), new HashSet<>()))
+                .build()));
+
+        List<Friendship> friendships = new ArrayList<>(BATCH_SIZE);
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friends", rs -> {
+            friendships.add(new Friendship(rs.getInt("user_id"), rs.getInt("friend_id")));
+            if (friendships.size() == BATCH_SIZE) {
+                userStorage.addFriendships(friendships);
+                friendships.clear();
+            }
+        });
+        userStorage.addFriendships(friendships);
+
+        List<Like> likes = new ArrayList<>(BATCH_SIZE);
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes", rs -> {
+            likes.add(new Like(rs.getInt("film_id"), rs.getInt("user_id")));
+            if (likes.size() == BATCH_SIZE) {
+                filmStorage.addLikes(likes);
+                likes.clear();
+            }
+        });
+        filmStorage.addLikes(likes);
+
+        log.info("Набор данных перенесён в хранилища за {} мс", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+
+    @Benchmark
+    public List<User> findUserFriends(BenchmarkDataset dataset) {
+        return dataset.userService.findUserFriends(dataset.randomUser(), null, null);
+    }
+
+    @Benchmark
+    public List<User> findMutualFriends(BenchmarkDataset dataset) {
+        return dataset.userService.findMutualFriends(dataset.randomUser(), dataset.randomUser());
+    }
+}
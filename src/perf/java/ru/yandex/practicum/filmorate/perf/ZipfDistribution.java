@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.perf;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class ZipfDistribution {
+    private final double[] cumulative;
+    private final int[] idsByRank;
+
+    public ZipfDistribution(int size, double skew, SplittableRandom random) {
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+
+        idsByRank = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            idsByRank[rank] = rank + 1;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int id = idsByRank[i];
+            idsByRank[i] = idsByRank[j];
+            idsByRank[j] = id;
+        }
+    }
+
+    public int size() {
+        return idsByRank.length;
+    }
+
+    public int sample(SplittableRandom random) {
+        return idsByRank[sampleRank(random)];
+    }
+
+    public int sampleRank(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    public int idOfRank(int rank) {
+        return idsByRank[rank];
+    }
+}
@@ -4,15 +4,27 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.QueryCounter;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaDbStorage;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
+import java.lang.reflect.Proxy;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
@@ -20,79 +32,234 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 
 @AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
 @JdbcTest
 @ComponentScan("ru.yandex.practicum.filmorate")
+@Import(QueryCounter.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Sql(value = {"/schema.sql", "/testing.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @Sql(value = "/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
-public class FilmDbStorageTest {
+public class FilmDbStorageTest extends FilmStorageContractTest {
     private final FilmDbStorage filmStorage;
+    private final QueryCounter queryCounter;
+    private final JdbcTemplate jdbcTemplate;
+    private final MpaDbStorage mpaDbStorage;
+    private final GenreDbStorage genreDbStorage;
+    private final CachingFilmStorage cachingFilmStorage;
+
+    @Override
+    protected FilmStorage filmStorage() {
+        return filmStorage;
+    }
 
     @Test
-    public void testFindFilmById() {
+    public void testCreateAllInsertsFilmsAndGenresInBatches() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            films.add(Film.builder()
+                    .name("BatchFilm" + i)
+                    .description("BatchFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .mpa(new Mpa(3, "PG-13"))
+                    .genres(new HashSet<>(List.of(new Genre(1, "Комедия"), new Genre(i + 2, null))))
+                    .duration(90)
+                    .build());
+        }
+
+        queryCounter.reset();
+        List<Film> created = filmStorage.createAll(films);
+
+        assertThat(queryCounter.count()).isEqualTo(2);
+        assertThat(created).extracting(Film::getId).containsExactly(6, 7, 8);
+        assertThat(filmStorage.findById(8).getGenres()).extracting(Genre::getId).containsExactly(1, 4);
+        assertThat(filmStorage.findById(8).getMpa()).isEqualTo(new Mpa(3, "PG-13"));
+    }
+
+    @Test
+    public void testFilmUpdateWritesOnlyChangedGenres() {
         Film film = filmStorage.findById(1);
+        queryCounter.reset();
+        filmStorage.update(film);
+
+        assertThat(queryCounter.statements())
+                .filteredOn(sql -> sql.contains("film_genres"))
+                .containsExactly("SELECT genre_id FROM film_genres WHERE film_id=?");
+
+        film.setGenres(new HashSet<>(List.of(new Genre(2, "Драма"), new Genre(4, "Триллер"))));
+        queryCounter.reset();
+        filmStorage.update(film);
 
-        assertThat(film)
-                .hasFieldOrPropertyWithValue("id", 1)
-                .hasFieldOrPropertyWithValue("likes", new HashSet<>(List.of(1, 2, 3, 4, 5)));
+        assertThat(queryCounter.statements())
+                .filteredOn(sql -> sql.contains("film_genres"))
+                .containsExactly("SELECT genre_id FROM film_genres WHERE film_id=?",
+                        "DELETE FROM film_genres WHERE film_id=? AND genre_id = ANY(?)",
+                        "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)");
+        assertThat(filmStorage.findById(1).getGenres()).extracting(Genre::getId).containsExactly(2, 4);
     }
 
     @Test
-    public void testFindAllFilms() {
+    public void testFindAllUsesConstantNumberOfQueries() {
+        filmStorage.findAll();
+        queryCounter.reset();
+        filmStorage.findAll();
+        int queriesForFiveFilms = queryCounter.count();
+
+        for (int i = 0; i < 5; i++) {
+            Film film = filmStorage.create(Film.builder()
+                    .name("BulkFilm" + i)
+                    .description("BulkFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .mpa(new Mpa(2, "PG"))
+                    .genres(new HashSet<>(List.of(new Genre(1, "Комедия"), new Genre(2, "Драма"))))
+                    .duration(100)
+                    .build());
+            filmStorage.add(film.getId(), 1);
+        }
+
+        queryCounter.reset();
         List<Film> films = filmStorage.findAll();
 
-        assertThat(films).size().isEqualTo(5);
+        assertThat(films).size().isEqualTo(10);
+        assertThat(queryCounter.count()).isEqualTo(queriesForFiveFilms).isEqualTo(3);
+        assertThat(films.get(9).getGenres()).containsExactly(new Genre(1, "Комедия"), new Genre(2, "Драма"));
+        assertThat(films.get(9).getLikes()).containsExactly(1);
+        assertThat(films.get(9).getMpa()).isEqualTo(new Mpa(2, "PG"));
+    }
+
+    @Test
+    public void testExportAllStreamsFilmsWithGenresAndLikes() {
+        List<Film> expected = filmStorage.findAll();
+        queryCounter.reset();
+
+        List<Film> exported = new ArrayList<>();
+        filmStorage.exportAll(exported::add);
+
+        assertThat(queryCounter.count()).isEqualTo(3);
+        assertThat(exported).isEqualTo(expected);
+    }
+
+    @Test
+    public void testFindByIdUsesConstantNumberOfQueries() {
+        filmStorage.findById(2);
+        queryCounter.reset();
+        Film film = filmStorage.findById(1);
+
+        assertThat(queryCounter.count()).isEqualTo(3);
+        assertThat(film.getMpa()).isEqualTo(new Mpa(1, "G"));
+        assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(1, 2, 3);
     }
 
     @Test
-    public void testFilmCreation() {
-        Film film = Film.builder()
-                .name("TestFilm6")
-                .description("TestFilm6Description")
-                .releaseDate(LocalDate.of(2000, 1, 1))
-                .mpa(new Mpa(1, "G"))
-                .genres(new HashSet<>())
-                .duration(120)
-                .build();
-
-        film = filmStorage.create(film);
-        assertThat(film).hasFieldOrPropertyWithValue("id", 6);
-        Film filmFromDb = filmStorage.findById(film.getId());
-        assertThat(filmFromDb).hasFieldOrPropertyWithValue("id", 6);
+    public void testFindByIdsUsesConstantNumberOfQueries() {
+        filmStorage.findById(2);
+        queryCounter.reset();
+        List<Film> films = filmStorage.findByIds(List.of(5, 42, 1, 3));
+
+        assertThat(queryCounter.count()).isEqualTo(3);
+        assertThat(films).extracting(Film::getId).containsExactly(5, 1, 3);
+    }
+
+    @Test
+    public void testFindPopularUsesConstantNumberOfQueries() {
+        filmStorage.findAll();
+        queryCounter.reset();
+        List<Film> films = filmStorage.findPopular(2);
+
+        assertThat(films).extracting(Film::getId).containsExactly(1, 3);
+        assertThat(queryCounter.count()).isEqualTo(3);
     }
 
     @Test
-    public void testFilmUpdate() {
-        Film film = Film.builder()
-                .id(2)
-                .name("TestFilm7")
-                .description("TestFilm7Description")
-                .releaseDate(LocalDate.of(2000, 1, 1))
-                .mpa(new Mpa(1, "G"))
-                .genres(new HashSet<>(List.of(new Genre(1, "Комедия"))))
-                .duration(120)
-                .build();
-
-        Film updatedFilm = filmStorage.update(film);
-        assertThat(updatedFilm).hasFieldOrPropertyWithValue("id", 2);
+    public void testRepeatedLikeSkipsCounterUpdate() {
+        queryCounter.reset();
+        assertThat(filmStorage.add(4, 4)).isTrue();
+        assertThat(queryCounter.count()).isEqualTo(2);
+
+        queryCounter.reset();
+        assertThat(filmStorage.add(4, 4)).isFalse();
+        assertThat(queryCounter.count()).isEqualTo(1);
+        assertThat(filmStorage.reconcileLikeCounts()).isZero();
     }
 
     @Test
-    public void testAddLike() {
-        filmStorage.add(4, 4);
+    public void testReconcileLikeCounts() {
+        jdbcTemplate.update("UPDATE films SET like_count = 100 WHERE film_id = 5");
+        assertThat(filmStorage.findPopular(1)).extracting(Film::getId).containsExactly(5);
+
+        assertThat(filmStorage.reconcileLikeCounts()).isEqualTo(1);
+        assertThat(filmStorage.findPopular(1)).extracting(Film::getId).containsExactly(1);
+    }
+
+    @Test
+    public void testReferenceDataIsCached() {
+        mpaDbStorage.invalidate();
+        genreDbStorage.invalidate();
+        mpaDbStorage.findAll();
+        genreDbStorage.findAll();
+
+        queryCounter.reset();
+        assertThat(mpaDbStorage.findAll()).size().isEqualTo(5);
+        assertThat(mpaDbStorage.findById(3)).isEqualTo(new Mpa(3, "PG-13"));
+        assertThat(genreDbStorage.findAll()).size().isEqualTo(6);
+        assertThat(genreDbStorage.existsById(7)).isFalse();
+        assertThat(queryCounter.count()).isZero();
+
+        genreDbStorage.invalidate();
+        assertThat(genreDbStorage.findById(6)).isEqualTo(new Genre(6, "Боевик"));
+        assertThat(queryCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCachedFilmIsInvalidatedOnLike() {
+        cachingFilmStorage.invalidateAll();
+        long missesBefore = cachingFilmStorage.stats().missCount();
+        cachingFilmStorage.findById(4);
+
+        queryCounter.reset();
+        assertThat(cachingFilmStorage.findById(4).getLikes()).containsExactly(1);
+        assertThat(cachingFilmStorage.findByIds(List.of(4))).extracting(Film::getId).containsExactly(4);
+        assertThat(queryCounter.count()).isZero();
+
+        cachingFilmStorage.add(4, 2);
+        queryCounter.reset();
+        assertThat(cachingFilmStorage.findById(4).getLikes()).containsExactlyInAnyOrder(1, 2);
+        assertThat(queryCounter.count()).isEqualTo(3);
+        assertThat(cachingFilmStorage.stats().missCount() - missesBefore).isEqualTo(2);
+    }
+
+    @Test
+    public void testLikeDuringMultiGetDoesNotLeaveStaleFilmInCache() {
+        CachingFilmStorage[] caching = new CachingFilmStorage[1];
+        FilmStorage delegate = (FilmStorage) Proxy.newProxyInstance(FilmStorage.class.getClassLoader(),
+                new Class<?>[]{FilmStorage.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(filmStorage, args);
+                    if (method.getName().equals("findByIds")) {
+                        caching[0].add(4, 2);
+                    }
+                    return result;
+                });
+        caching[0] = new CachingFilmStorage(delegate, 100, Duration.ofMinutes(1));
+
+        assertThat(caching[0].findByIds(List.of(4, 5))).extracting(Film::getId).containsExactly(4, 5);
 
-        Film film = filmStorage.findById(4);
-        List<Integer> likes = film.getLikes().stream().toList();
-        assertThat(likes).size().isEqualTo(2);
-        assertThat(likes.get(likes.size() - 1)).isEqualTo(4);
+        assertThat(caching[0].findById(4).getLikes()).containsExactlyInAnyOrder(1, 2);
+        assertThat(caching[0].findById(5).getLikes()).isEqualTo(filmStorage.findById(5).getLikes());
     }
 
     @Test
-    public void testsRemoveLike() {
-        int likesNumberBeforeRemoval = filmStorage.findById(1).getLikes().size();
-        filmStorage.remove(1, 1);
+    public void testCachedFilmIsNotSharedWithCallers() {
+        cachingFilmStorage.invalidateAll();
+        Film film = cachingFilmStorage.findById(1);
+        film.setName("Changed");
+        film.getLikes().remove(1);
+        film.getGenres().clear();
+        cachingFilmStorage.findByIds(List.of(1)).get(0).getMpa().setName("Changed");
 
-        assertThat(filmStorage.findById(1).getLikes()).size().isEqualTo(likesNumberBeforeRemoval - 1);
-        assertThat(filmStorage.findById(1).getLikes()).doesNotContain(1);
+        Film cached = cachingFilmStorage.findById(1);
+        assertThat(cached.getName()).isNotEqualTo("Changed");
+        assertThat(cached.getLikes()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(cached.getGenres()).isNotEmpty();
+        assertThat(cached.getMpa().getName()).isNotEqualTo("Changed");
     }
 }
@@ -0,0 +1,199 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Поведение {@link FilmStorage}, общее для всех реализаций. Наследник заполняет хранилище теми же фильмами, жанрами
+ * и лайками, что и testing.sql.
+ */
+public abstract class FilmStorageContractTest {
+    protected abstract FilmStorage filmStorage();
+
+    @Test
+    public void testFindFilmById() {
+        Film film = filmStorage().findById(1);
+
+        assertThat(film)
+                .hasFieldOrPropertyWithValue("id", 1)
+                .hasFieldOrPropertyWithValue("likes", new HashSet<>(List.of(1, 2, 3, 4, 5)));
+
+        Film third = filmStorage().findById(3);
+        assertThat(third.getName()).isEqualTo("film3");
+        assertThat(third.getMpa()).isEqualTo(new Mpa(3, "PG-13"));
+        assertThat(third.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Документальный");
+        assertThat(third.getLikes()).containsExactly(1, 3, 4);
+        assertThatThrownBy(() -> filmStorage().findById(42)).isInstanceOf(DoesNotExistsException.class);
+    }
+
+    @Test
+    public void testFindAllFilms() {
+        List<Film> films = filmStorage().findAll();
+
+        assertThat(films).size().isEqualTo(5);
+    }
+
+    @Test
+    public void testReturnedFilmsAreCopies() {
+        Film film = filmStorage().findById(1);
+        film.getLikes().clear();
+        film.setName("changed");
+
+        assertThat(filmStorage().findById(1).getName()).isEqualTo("film1");
+        assertThat(filmStorage().findById(1).getLikes()).hasSize(5);
+    }
+
+    @Test
+    public void testFilmCreation() {
+        Film film = Film.builder()
+                .name("TestFilm6")
+                .description("TestFilm6Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .mpa(new Mpa(1, "G"))
+                .genres(new HashSet<>())
+                .duration(120)
+                .build();
+
+        film = filmStorage().create(film);
+        assertThat(film).hasFieldOrPropertyWithValue("id", 6);
+        Film filmFromDb = filmStorage().findById(film.getId());
+        assertThat(filmFromDb).hasFieldOrPropertyWithValue("id", 6);
+    }
+
+    @Test
+    public void testCreateAllAndPagination() {
+        List<Film> created = filmStorage().createAll(List.of(film("a", 1, 1), film("b", 3, 4)));
+
+        assertThat(created).extracting(Film::getId).containsExactly(6, 7);
+        assertThat(filmStorage().findById(7).getGenres()).extracting(Genre::getId).containsExactly(4);
+        assertThat(filmStorage().findById(7).getMpa()).isEqualTo(new Mpa(3, "PG-13"));
+        assertThat(filmStorage().findPage(0, 2)).extracting(Film::getId).containsExactly(1, 2);
+        assertThat(filmStorage().findPage(5, 10)).extracting(Film::getId).containsExactly(6, 7);
+        assertThat(filmStorage().findPage(7, 10)).isEmpty();
+        assertThat(filmStorage().findAll()).hasSize(7);
+        assertThat(filmStorage().existsById(7)).isTrue();
+        assertThat(filmStorage().existsById(8)).isFalse();
+        assertThat(filmStorage().findExistingIds(List.of(1, 7, 42))).containsExactlyInAnyOrder(1, 7);
+    }
+
+    @Test
+    public void testFindByIdsKeepsRequestOrder() {
+        List<Film> films = filmStorage().findByIds(List.of(5, 42, 1, 3));
+
+        assertThat(films).extracting(Film::getId).containsExactly(5, 1, 3);
+        assertThat(films.get(1).getGenres()).extracting(Genre::getId).containsExactly(1, 2, 3);
+        assertThat(films.get(1).getLikes()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(filmStorage().findByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    public void testFilmUpdate() {
+        Film film = Film.builder()
+                .id(2)
+                .name("TestFilm7")
+                .description("TestFilm7Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .mpa(new Mpa(1, "G"))
+                .genres(new HashSet<>(List.of(new Genre(1, "Комедия"))))
+                .duration(120)
+                .build();
+
+        Film updatedFilm = filmStorage().update(film);
+        assertThat(updatedFilm).hasFieldOrPropertyWithValue("id", 2);
+
+        Film updated = filmStorage().findById(2);
+        assertThat(updated.getName()).isEqualTo("TestFilm7");
+        assertThat(updated.getMpa()).isEqualTo(new Mpa(1, "G"));
+        assertThat(updated.getGenres()).containsExactly(new Genre(1, "Комедия"));
+        assertThat(updated.getLikes()).containsExactly(1, 4);
+    }
+
+    @Test
+    public void testAddLike() {
+        filmStorage().add(4, 4);
+
+        Film film = filmStorage().findById(4);
+        List<Integer> likes = film.getLikes().stream().toList();
+        assertThat(likes).size().isEqualTo(2);
+        assertThat(likes.get(likes.size() - 1)).isEqualTo(4);
+    }
+
+    @Test
+    public void testsRemoveLike() {
+        int likesNumberBeforeRemoval = filmStorage().findById(1).getLikes().size();
+        filmStorage().remove(1, 1);
+
+        assertThat(filmStorage().findById(1).getLikes()).size().isEqualTo(likesNumberBeforeRemoval - 1);
+        assertThat(filmStorage().findById(1).getLikes()).doesNotContain(1);
+    }
+
+    @Test
+    public void testLikeWritesAreIdempotent() {
+        assertThat(filmStorage().add(4, 4)).isTrue();
+        assertThat(filmStorage().add(4, 4)).isFalse();
+        assertThat(filmStorage().hasLike(4, 4)).isTrue();
+        assertThat(filmStorage().remove(4, 4)).isTrue();
+        assertThat(filmStorage().remove(4, 4)).isFalse();
+        assertThat(filmStorage().hasLike(4, 4)).isFalse();
+        assertThat(filmStorage().findById(4).getLikes()).containsExactly(1);
+    }
+
+    @Test
+    public void testFindPopular() {
+        List<Film> films = filmStorage().findPopular(2);
+
+        assertThat(films).extracting(Film::getId).containsExactly(1, 3);
+        assertThat(films.get(0).getLikes()).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void testLikeCountFollowsLikes() {
+        assertThat(filmStorage().removeLikes(List.of(new Like(1, 1), new Like(1, 2), new Like(1, 3),
+                new Like(1, 3)))).isEqualTo(Map.of(1, 3));
+        assertThat(filmStorage().addLikes(List.of(new Like(2, 2), new Like(2, 2)))).isEqualTo(Map.of(2, 1));
+
+        assertThat(filmStorage().findPopular(2)).extracting(Film::getId).containsExactly(2, 3);
+        assertThat(filmStorage().findLikeCounts()).containsEntry(1, 2).containsEntry(2, 3).containsEntry(5, 1);
+        assertThat(filmStorage().reconcileLikeCounts()).isZero();
+    }
+
+    @Test
+    public void testExportAll() {
+        List<Film> expected = filmStorage().findAll();
+
+        List<Film> exported = new ArrayList<>();
+        filmStorage().exportAll(exported::add);
+
+        assertThat(exported).extracting(Film::getId).containsExactly(1, 2, 3, 4, 5);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(exported.get(i).getGenres()).isEqualTo(expected.get(i).getGenres());
+            assertThat(exported.get(i).getLikes()).isEqualTo(expected.get(i).getLikes());
+        }
+        assertThat(exported.get(1).getLikes()).containsExactly(1, 4);
+    }
+
+    private Film film(String name, int mpaId, int genreId) {
+        return Film.builder()
+                .name(name)
+                .description(name + "_desc")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(mpaId, null))
+                .genres(new HashSet<>(List.of(new Genre(genreId, null))))
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.inmemory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.inmemory.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.inmemory.InMemoryMpaStorage;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+public class InMemoryFilmStorageTest extends FilmStorageContractTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(new InMemoryGenreStorage(),
+            new InMemoryMpaStorage());
+
+    @Override
+    protected FilmStorage filmStorage() {
+        return filmStorage;
+    }
+
+    @BeforeEach
+    public void seed() {
+        filmStorage.createAll(List.of(
+                film("film1", LocalDate.of(1999, 5, 3), 100, 1, 1, 2, 3),
+                film("film2", LocalDate.of(2001, 11, 5), 111, 2, 6, 2),
+                film("film3", LocalDate.of(2012, 7, 2), 121, 3, 1, 5),
+                film("film4", LocalDate.of(2011, 8, 1), 90, 4, 4),
+                film("film5", LocalDate.of(2008, 9, 11), 130, 5, 1)));
+        filmStorage.addLikes(List.of(new Like(1, 1), new Like(1, 2), new Like(1, 3), new Like(1, 4),
+                new Like(1, 5), new Like(2, 1), new Like(2, 4), new Like(3, 1), new Like(3, 3), new Like(3, 4),
+                new Like(4, 1), new Like(5, 5)));
+    }
+
+    private Film film(String name, LocalDate releaseDate, long duration, int mpaId, int... genreIds) {
+        HashSet<Genre> genres = new HashSet<>();
+        for (int genreId : genreIds) {
+            genres.add(new Genre(genreId, null));
+        }
+
+        return Film.builder()
+                .name(name)
+                .description(name + "_desc")
+                .releaseDate(releaseDate)
+                .duration(duration)
+                .mpa(new Mpa(mpaId, null))
+                .genres(genres)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.inmemory.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class InMemoryUserStorageTest extends UserStorageContractTest {
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+    @Override
+    protected UserStorage userStorage() {
+        return userStorage;
+    }
+
+    @BeforeEach
+    public void seed() {
+        userStorage.createAll(List.of(
+                user(1, LocalDate.of(1894, 9, 11)),
+                user(2, LocalDate.of(1991, 5, 1)),
+                user(3, LocalDate.of(1999, 6, 2)),
+                user(4, LocalDate.of(1985, 8, 13)),
+                user(5, LocalDate.of(1922, 9, 22))));
+        userStorage.addFriendships(List.of(new Friendship(1, 3), new Friendship(2, 3), new Friendship(2, 4),
+                new Friendship(3, 2), new Friendship(3, 1), new Friendship(4, 2), new Friendship(5, 1)));
+    }
+
+    private User user(int number, LocalDate birthday) {
+        return User.builder()
+                .email("username" + number + "@gmail.com")
+                .login("user_login" + number)
+                .name("user" + number)
+                .birthday(birthday)
+                .build();
+    }
+}
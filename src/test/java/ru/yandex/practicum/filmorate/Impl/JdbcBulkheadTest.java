@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.dao.JdbcBulkhead;
+import ru.yandex.practicum.filmorate.dao.JdbcBulkheadPostProcessor;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JdbcBulkheadTest {
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final JdbcBulkhead bulkhead = new JdbcBulkhead(new SimpleMeterRegistry(), 1,
+            Duration.ofMillis(50));
+
+    @Test
+    public void testRejectsWhenWaitBudgetIsExceeded() throws Exception {
+        bulkhead.acquire();
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(bulkhead::acquire);
+        assertThatThrownBy(waiting::join).hasCauseInstanceOf(ServiceOverloadedException.class);
+
+        bulkhead.release();
+        CompletableFuture.runAsync(bulkhead::acquire).get();
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReleasesPermitWhenConnectionIsClosed() throws Exception {
+        beanFactory.registerSingleton("jdbcBulkhead", bulkhead);
+        DataSource dataSource = (DataSource) new JdbcBulkheadPostProcessor(beanFactory.getBeanProvider(
+                JdbcBulkhead.class)).postProcessAfterInitialization(
+                new DriverManagerDataSource("jdbc:h2:mem:bulkhead"), "dataSource");
+
+        Connection connection = dataSource.getConnection();
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceOverloadedException.class);
+
+        connection.close();
+        connection.close();
+        assertThat(bulkhead.activeCount()).isZero();
+
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(next.isValid(1)).isTrue();
+        }
+        assertThat(bulkhead.activeCount()).isZero();
+    }
+}
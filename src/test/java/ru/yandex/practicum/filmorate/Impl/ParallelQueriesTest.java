@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import ru.yandex.practicum.filmorate.dao.JdbcBulkhead;
+import ru.yandex.practicum.filmorate.dao.ParallelQueries;
+import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelQueriesTest {
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final ParallelQueries parallelQueries = new ParallelQueries(new SimpleMeterRegistry(),
+            beanFactory.getBeanProvider(JdbcBulkhead.class), true, 1);
+
+    @AfterEach
+    public void tearDown() {
+        parallelQueries.shutdown();
+    }
+
+    @Test
+    public void testRunsQueryOnVirtualThread() {
+        ParallelQueries.Subquery<Boolean> subquery = parallelQueries.fork(() -> Thread.currentThread().isVirtual());
+
+        assertThat(subquery.join()).isTrue();
+        assertThat(parallelQueries.activeCount()).isZero();
+    }
+
+    @Test
+    public void testRunsQueryInCallerThreadWhenBudgetIsExhausted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelQueries.Subquery<Thread> blocked = parallelQueries.fork(() -> {
+            await(release);
+            return Thread.currentThread();
+        });
+        ParallelQueries.Subquery<Thread> inline = parallelQueries.fork(Thread::currentThread);
+
+        assertThat(inline.join()).isSameAs(Thread.currentThread());
+        release.countDown();
+        assertThat(blocked.join()).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void testRunsQueryInCallerThreadWhenBulkheadIsFull() {
+        JdbcBulkhead bulkhead = new JdbcBulkhead(new SimpleMeterRegistry(), 1,
+                Duration.ofMillis(50));
+        beanFactory.registerSingleton("jdbcBulkhead", bulkhead);
+        bulkhead.acquire();
+
+        assertThat(parallelQueries.fork(Thread::currentThread).join()).isSameAs(Thread.currentThread());
+        assertThat(parallelQueries.activeCount()).isZero();
+
+        bulkhead.release();
+        assertThat(parallelQueries.fork(Thread::currentThread).join()).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void testRethrowsQueryException() {
+        ParallelQueries.Subquery<Object> subquery = parallelQueries.fork(() -> {
+            throw new DoesNotExistsException("Фильм с id 1 не найден");
+        });
+
+        assertThatThrownBy(subquery::join).isInstanceOf(DoesNotExistsException.class);
+        assertThat(parallelQueries.activeCount()).isZero();
+    }
+
+    @Test
+    public void testRunsQueryInCallerThreadWhenDisabled() {
+        ParallelQueries disabled = new ParallelQueries(new SimpleMeterRegistry(),
+                beanFactory.getBeanProvider(JdbcBulkhead.class), false, 1);
+
+        assertThat(disabled.fork(Thread::currentThread).join()).isSameAs(Thread.currentThread());
+        disabled.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
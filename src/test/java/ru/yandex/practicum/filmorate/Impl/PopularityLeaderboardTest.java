@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PopularityLeaderboardTest {
+    private Supplier<Map<Integer, Integer>> scan = () -> Map.of(1, 5, 2, 3, 3, 1);
+    private final PopularityLeaderboard leaderboard = new PopularityLeaderboard(storage(), Optional.empty());
+
+    @Test
+    public void testRebuildHoldsLikesBackWithoutBlockingReaders() {
+        leaderboard.rebuild();
+        assertThat(leaderboard.top(3)).containsExactly(1, 2, 3);
+
+        CompletableFuture<Void> likes = new CompletableFuture<>();
+        scan = () -> {
+            likes.completeAsync(() -> {
+                leaderboard.update(() -> {
+                    leaderboard.increment(3, 3);
+                    return null;
+                });
+                return null;
+            });
+            List<Integer> topDuringScan = CompletableFuture.supplyAsync(() -> leaderboard.top(3))
+                    .orTimeout(1, TimeUnit.SECONDS).join();
+            assertThat(topDuringScan).containsExactly(1, 2, 3);
+            assertThat(likes).isNotDone();
+            return Map.of(1, 5, 2, 3, 3, 1);
+        };
+        leaderboard.rebuild();
+        likes.orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertThat(leaderboard.top(3)).containsExactly(1, 3, 2);
+    }
+
+    @Test
+    public void testLikeWrittenBeforeScanIsNotCountedTwice() throws InterruptedException {
+        Map<Integer, Integer> database = new ConcurrentHashMap<>(Map.of(1, 5, 2, 3, 3, 1));
+        scan = () -> Map.copyOf(database);
+        leaderboard.rebuild();
+
+        CountDownLatch written = new CountDownLatch(1);
+        CompletableFuture<Void> like = CompletableFuture.runAsync(() -> leaderboard.update(() -> {
+            database.merge(3, 3, Integer::sum);
+            written.countDown();
+            sleep(100);
+            leaderboard.increment(3, 3);
+            return null;
+        }));
+        written.await();
+        leaderboard.rebuild();
+        like.orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertThat(leaderboard.top(3)).containsExactly(1, 3, 2);
+    }
+
+    @Test
+    public void testUpdatesWaitingForRebuildApplyToNewSnapshot() {
+        leaderboard.rebuild();
+
+        CompletableFuture<Void> changes = new CompletableFuture<>();
+        scan = () -> {
+            changes.completeAsync(() -> leaderboard.update(() -> {
+                leaderboard.register(4);
+                leaderboard.decrement(1);
+                return null;
+            }));
+            return Map.of(1, 5, 2, 3, 3, 1);
+        };
+        leaderboard.rebuild();
+        changes.orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertThat(leaderboard.size()).isEqualTo(4);
+        assertThat(leaderboard.top(4)).containsExactly(1, 2, 3, 4);
+        leaderboard.decrement(1);
+        assertThat(leaderboard.top(2)).containsExactly(1, 2);
+        leaderboard.decrement(1);
+        assertThat(leaderboard.top(2)).containsExactly(2, 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private FilmStorage storage() {
+        return (FilmStorage) Proxy.newProxyInstance(FilmStorage.class.getClassLoader(),
+                new Class<?>[]{FilmStorage.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findLikeCounts")) {
+                        return scan.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.Impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Поведение {@link UserStorage}, общее для всех реализаций. Наследник заполняет хранилище теми же пользователями и
+ * дружбами, что и testing.sql.
+ */
+public abstract class UserStorageContractTest {
+    protected abstract UserStorage userStorage();
+
+    @Test
+    public void testFindUserById() {
+        User user = userStorage().findById(1);
+
+        assertThat(user).hasFieldOrPropertyWithValue("id", 1);
+        assertThatThrownBy(() -> userStorage().findById(42)).isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    public void testFindAllUsers() {
+        List<User> users = userStorage().findAll();
+
+        assertThat(users).size().isEqualTo(5);
+        assertThat(users.get(1).getFriends()).containsExactly(3, 4);
+    }
+
+    @Test
+    public void testCreateUser() {
+        User user = User.builder()
+                .email("test@testmail.test")
+                .login("testUserLogin")
+                .name("Foo Bar")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+        User newUser = userStorage().create(user);
+        assertThat(newUser).hasFieldOrPropertyWithValue("id", 6);
+
+        User userFromDb = userStorage().findById(6);
+        assertThat(userFromDb).hasFieldOrPropertyWithValue("id", 6);
+    }
+
+    @Test
+    public void testUpdateUser() {
+        User user = User.builder()
+                .id(5)
+                .email("test@testmail.test")
+                .login("testUserLogin")
+                .name("Foo Bar")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+        User userFromDb = userStorage().update(user);
+
+        assertThat(userFromDb.getId()).isEqualTo(5);
+        assertThat(userStorage().findById(5).getEmail()).isEqualTo("test@testmail.test");
+    }
+
+    @Test
+    public void testUniqueEmailAndLogin() {
+        User duplicate = user("username1@gmail.com", "new");
+        User fresh = user("new@mail.ru", "new");
+
+        assertThatThrownBy(() -> userStorage().createAll(List.of(fresh, duplicate)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(userStorage().findAll()).extracting(User::getEmail).containsOnlyOnce("username1@gmail.com");
+
+        User renamed = userStorage().findById(5);
+        renamed.setEmail("username4@gmail.com");
+        assertThatThrownBy(() -> userStorage().update(renamed)).isInstanceOf(DuplicateKeyException.class);
+        renamed.setEmail("renamed@mail.ru");
+        userStorage().update(renamed);
+
+        assertThat(userStorage().create(user("username5@gmail.com", "another")).getId()).isPositive();
+        assertThat(userStorage().findAll()).extracting(User::getEmail)
+                .contains("renamed@mail.ru", "username5@gmail.com");
+    }
+
+    @Test
+    public void testAddFriend() {
+        assertThat(userStorage().add(3, 4)).isTrue();
+        assertThat(userStorage().add(3, 4)).isFalse();
+        User user1 = userStorage().findById(3);
+        User user = userStorage().findById(4);
+
+        assertThat(user1.getFriends()).contains(4);
+        assertThat(user.getFriends()).doesNotContain(3);
+    }
+
+    @Test
+    public void testFindAllFriends() {
+        Set<Integer> friends = userStorage().findById(2).getFriends();
+
+        assertThat(friends.stream().toList()).contains(3, 4);
+    }
+
+    @Test
+    public void testDeleteFriend() {
+        User user = userStorage().findById(1);
+        assertThat(user.getFriends()).contains(3);
+
+        assertThat(userStorage().remove(1, 3)).isTrue();
+        assertThat(userStorage().remove(1, 3)).isFalse();
+        User user1 = userStorage().findById(1);
+        assertThat(user1.getFriends()).doesNotContain(3);
+    }
+
+    @Test
+    public void testExistenceProbes() {
+        assertThat(userStorage().existsById(5)).isTrue();
+        assertThat(userStorage().existsById(6)).isFalse();
+        assertThat(userStorage().findExistingIds(List.of(1, 3, 6, 42))).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    public void testFindMutualFriends() {
+        List<User> mutualFriends = userStorage().findMutualFriends(1, 2);
+
+        assertThat(mutualFriends).extracting(User::getId).containsExactly(3);
+        assertThat(mutualFriends.get(0).getFriends()).containsExactly(1, 2);
+        assertThat(userStorage().findMutualFriends(3, 4)).extracting(User::getId).containsExactly(2);
+        assertThat(userStorage().findMutualFriends(1, 5)).isEmpty();
+    }
+
+    @Test
+    public void testFindFriends() {
+        assertThat(userStorage().findFriends(2, 0, Integer.MAX_VALUE)).extracting(User::getId).containsExactly(3, 4);
+        assertThat(userStorage().findFriends(2, 0, 1)).extracting(User::getId).containsExactly(3);
+        assertThat(userStorage().findFriends(2, 3, 10)).extracting(User::getId).containsExactly(4);
+        assertThat(userStorage().findFriends(42, 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testFindByIds() {
+        List<User> users = userStorage().findByIds(List.of(4, 42, 2));
+
+        assertThat(users).extracting(User::getId).containsExactly(4, 2);
+        assertThat(users.get(1).getFriends()).containsExactly(3, 4);
+        assertThat(userStorage().findByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    public void testFindPage() {
+        assertThat(userStorage().findPage(0, 2)).extracting(User::getId).containsExactly(1, 2);
+        assertThat(userStorage().findPage(2, 2)).extracting(User::getId).containsExactly(3, 4);
+        assertThat(userStorage().findPage(4, 2)).extracting(User::getId).containsExactly(5);
+        assertThat(userStorage().findPage(5, 2)).isEmpty();
+    }
+
+    private User user(String email, String login) {
+        return User.builder()
+                .email(email)
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
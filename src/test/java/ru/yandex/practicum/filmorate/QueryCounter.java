@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class QueryCounter implements BeanPostProcessor {
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+
+        return proxy(bean, (method, args) -> {
+            Object result = method.invoke(bean, args);
+            return result instanceof Connection connection ? countingConnection(connection) : result;
+        });
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    private Object countingConnection(Connection connection) {
+        return proxy(connection, (method, args) -> {
+            String name = method.getName();
+            if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                statements.add((String) args[0]);
+            } else if (name.equals("createStatement")) {
+                statements.add("<statement>");
+            }
+            return method.invoke(connection, args);
+        });
+    }
+
+    private Object proxy(Object target, Invocation invocation) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, new Handler(target, invocation));
+    }
+
+    private interface Invocation {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private record Handler(Object target, Invocation invocation) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals") && args.length == 1) {
+                return target.equals(unwrap(args[0]));
+            }
+            if (method.getName().equals("hashCode") && args == null) {
+                return target.hashCode();
+            }
+
+            try {
+                return invocation.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static Object unwrap(Object obj) {
+            if (obj != null && Proxy.isProxyClass(obj.getClass())
+                    && Proxy.getInvocationHandler(obj) instanceof Handler handler) {
+                return handler.target();
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Добавляет в срезы {@code @JdbcTest} то, что в приложении настраивают Spring Boot и Actuator: реестр метрик и
+ * проксирование аспектов. Срезы подхватывают её через {@code @ComponentScan("ru.yandex.practicum.filmorate")}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+public class SliceTestConfiguration {
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -1,26 +1,52 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.Impl.FilmDbStorage;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.IntSet;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
 @JdbcTest
 @ComponentScan("ru.yandex.practicum.filmorate")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -30,7 +56,15 @@ public class FilmControllerTest {
     @Autowired
     private FilmController filmController;
     @Autowired
+    private ErrorHandler errorHandler;
+    @Autowired
     private FilmDbStorage filmDbStorage;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private PopularityLeaderboard leaderboard;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Test
     void createFilmTest() {
@@ -41,7 +75,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
 
@@ -52,7 +86,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
 
@@ -74,7 +108,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
 
@@ -85,7 +119,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
         Film film3 = new Film(
@@ -95,7 +129,7 @@ public class FilmControllerTest {
                 LocalDate.of(1000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
         Film film4 = new Film(
@@ -105,7 +139,7 @@ public class FilmControllerTest {
                 LocalDate.of(1000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
 
@@ -124,7 +158,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
         filmController.createFilm(updatable);
@@ -135,7 +169,7 @@ public class FilmControllerTest {
                 LocalDate.of(2000, 1, 1),
                 120,
                 new Mpa(1, "G"),
-                new HashSet<>(),
+                new IntSet(),
                 new HashSet<>()
         );
 
@@ -161,7 +195,7 @@ public class FilmControllerTest {
                 .releaseDate(LocalDate.of(2000, 1, 1))
                 .duration(120)
                 .mpa(new Mpa(1, "G"))
-                .likes(new HashSet<>())
+                .likes(new IntSet())
                 .genres(new HashSet<>())
                 .build();
 
@@ -170,4 +204,152 @@ public class FilmControllerTest {
         assertEquals(1, filmController.findAll().size(), "Неверный размер списка фильмов");
         assertEquals(film1, filmController.findAll().get(0), "Сохранен не тот фильм");
     }
+
+    @Test
+    void findTopLikedTest() {
+        leaderboard.rebuild();
+        for (int i = 1; i <= 3; i++) {
+            filmController.createFilm(Film.builder()
+                    .name("TestFilm" + i)
+                    .description("TestFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+            userController.createUser(new User(null, "user" + i + "@testmail.test", "user" + i, "User",
+                    LocalDate.of(2000, 1, 1), new IntSet()));
+        }
+
+        filmController.addLike(2, 1);
+        filmController.addLike(2, 2);
+        filmController.addLike(3, 3);
+
+        assertEquals(List.of(2, 3), filmController.findTopLiked(2).stream().map(Film::getId).toList());
+
+        filmController.removeLike(2, 1);
+        filmController.removeLike(2, 2);
+
+        assertEquals(List.of(3, 1, 2), filmController.findTopLiked(10).stream().map(Film::getId).toList());
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    void leaderboardConcurrentUpdatesTest() throws InterruptedException {
+        leaderboard.rebuild();
+        leaderboard.register(1);
+        leaderboard.register(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> leaderboard.increment(1));
+            executor.submit(() -> leaderboard.increment(2));
+            executor.submit(() -> leaderboard.increment(2));
+            executor.submit(() -> leaderboard.decrement(1));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of(2, 1), leaderboard.top(2));
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    void findPageTest() {
+        for (int i = 1; i <= 3; i++) {
+            filmController.createFilm(Film.builder()
+                    .name("TestFilm" + i)
+                    .description("TestFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+        }
+
+        ResponseEntity<List<Film>> unpaged = filmController.findPage(null, null);
+        assertEquals(List.of(1, 2, 3), unpaged.getBody().stream().map(Film::getId).toList());
+        assertFalse(unpaged.getHeaders().containsKey("X-Next-Cursor"));
+
+        ResponseEntity<List<Film>> firstPage = filmController.findPage(null, 2);
+        assertEquals(List.of(1, 2), firstPage.getBody().stream().map(Film::getId).toList());
+        assertEquals("2", firstPage.getHeaders().getFirst("X-Next-Cursor"));
+
+        ResponseEntity<List<Film>> lastPage = filmController.findPage(2, 2);
+        assertEquals(List.of(3), lastPage.getBody().stream().map(Film::getId).toList());
+        assertFalse(lastPage.getHeaders().containsKey("X-Next-Cursor"));
+
+        ResponseEntity<List<Film>> defaultLimit = filmController.findPage(1, null);
+        assertEquals(List.of(2, 3), defaultLimit.getBody().stream().map(Film::getId).toList());
+
+        assertThrows(ValidationException.class, () -> filmController.findPage(null, 0), "Должен выбросить исключение");
+        assertThrows(ValidationException.class, () -> filmController.findPage(null, 100_000),
+                "Должен выбросить исключение");
+    }
+
+    @Test
+    void allAndIdsAreRejectedTogether() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(filmController).setControllerAdvice(errorHandler).build();
+
+        mockMvc.perform(get("/films").param("all", "true").param("ids", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("all", "true"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void findByIdsTest() {
+        for (int i = 1; i <= 3; i++) {
+            filmController.createFilm(Film.builder()
+                    .name("TestFilm" + i)
+                    .description("TestFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+        }
+
+        ResponseEntity<List<Film>> films = filmController.findByIds(List.of(3, 42, 1, 3, 7));
+        assertEquals(List.of(3, 1), films.getBody().stream().map(Film::getId).toList());
+        assertEquals("42,7", films.getHeaders().getFirst("X-Missing-Ids"));
+
+        ResponseEntity<List<Film>> allFound = filmController.findByIds(List.of(2));
+        assertEquals(List.of(2), allFound.getBody().stream().map(Film::getId).toList());
+        assertFalse(allFound.getHeaders().containsKey("X-Missing-Ids"));
+
+        List<Integer> tooMany = IntStream.rangeClosed(1, 100_000).boxed().toList();
+        assertThrows(ValidationException.class, () -> filmController.findByIds(tooMany),
+                "Должен выбросить исключение");
+        assertThrows(ValidationException.class, () -> filmController.findByIds(Arrays.asList(1, null, 2)),
+                "Должен выбросить исключение");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void exportTest() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            filmController.createFilm(Film.builder()
+                    .name("TestFilm" + i)
+                    .description("TestFilmDescription")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(120)
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+        }
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(filmController).build();
+
+        MvcResult started = mockMvc.perform(get("/films/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length, "Каждый фильм должен быть на своей строке");
+        for (int i = 0; i < lines.length; i++) {
+            Film film = objectMapper.readValue(lines[i], Film.class);
+            assertEquals(i + 1, film.getId());
+            assertEquals("TestFilm" + (i + 1), film.getName());
+        }
+    }
 }
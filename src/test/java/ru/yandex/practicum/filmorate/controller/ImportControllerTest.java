@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
+@JdbcTest
+@ComponentScan("ru.yandex.practicum.filmorate")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(value = "/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(value = {"/schema.sql", "/testing.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ImportControllerTest {
+    @Autowired
+    private ImportController importController;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private PopularityLeaderboard leaderboard;
+
+    @Test
+    void importFilmsTest() {
+        ImportReport report = importController.importFilms(ndjson(
+                "{\"name\":\"imported1\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90," +
+                        "\"mpa\":{\"id\":1},\"genres\":[{\"id\":2},{\"id\":4}]}",
+                "{\"name\":\"imported2\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90," +
+                        "\"mpa\":{\"id\":99}}",
+                "{\"name\":",
+                "",
+                "{\"name\":\"imported3\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90," +
+                        "\"mpa\":{\"id\":2}}"));
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of(2L, 3L), report.getErrors().stream().map(ImportError::getLine).toList());
+        assertEquals("У фильма должен быть указан существующий рейтинг", report.getErrors().getFirst().getMessage());
+
+        Film film = filmStorage.findById(6);
+        assertEquals("imported1", film.getName());
+        assertEquals(2, film.getGenres().size());
+        assertEquals("imported3", filmStorage.findById(7).getName());
+    }
+
+    @Test
+    void importUsersTest() {
+        ImportReport report = importController.importUsers(ndjson(
+                "{\"email\":\"new1@mail.ru\",\"login\":\"new1\",\"birthday\":\"2000-01-01\"}",
+                "{\"email\":\"username1@gmail.com\",\"login\":\"dup\",\"birthday\":\"2000-01-01\"}",
+                "{\"email\":\"new2@mail.ru\",\"login\":\"new2\",\"name\":\"New\",\"birthday\":\"2000-01-01\"}"));
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected());
+        assertEquals(2L, report.getErrors().getFirst().getLine());
+        List<User> users = userStorage.findAll();
+        assertEquals(7, users.size());
+        assertEquals("new1", users.get(5).getName());
+        assertEquals("New", users.get(6).getName());
+    }
+
+    @Test
+    void importLikesTest() {
+        leaderboard.rebuild();
+
+        ImportReport report = importController.importLikes(ndjson(
+                "{\"filmId\":5,\"userId\":1}",
+                "{\"filmId\":5,\"userId\":2}",
+                "{\"filmId\":5,\"userId\":5}",
+                "{\"filmId\":5,\"userId\":42}",
+                "{\"filmId\":5,\"userId\":3}",
+                "{\"filmId\":5,\"userId\":4}"));
+
+        assertEquals(5, report.getAccepted());
+        assertEquals(1, report.getRejected());
+        assertEquals("Пользователь с id 42 не найден", report.getErrors().getFirst().getMessage());
+        assertEquals(5, filmStorage.findById(5).getLikes().size());
+        assertEquals(0, filmStorage.reconcileLikeCounts());
+        assertEquals(List.of(1, 5), leaderboard.top(2));
+    }
+
+    @Test
+    void importFriendshipsTest() {
+        ImportReport report = importController.importFriendships(ndjson(
+                "{\"userId\":5,\"friendId\":2}",
+                "{\"userId\":5,\"friendId\":1}",
+                "{\"userId\":7,\"friendId\":1}"));
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected());
+        assertEquals(Set.of(1, 2), userStorage.findById(5).getFriends());
+    }
+
+    private InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.QueryCounter;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+import ru.yandex.practicum.filmorate.service.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
+@JdbcTest
+@ComponentScan("ru.yandex.practicum.filmorate")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+@Import(QueryCounter.class)
+@TestPropertySource(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.capacity=4",
+        "filmorate.likes.write-behind.flush-size=1000",
+        "filmorate.likes.write-behind.flush-interval=PT1H",
+        "filmorate.likes.write-behind.offer-timeout=PT0.01S"
+})
+@Sql(value = "/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(value = {"/schema.sql", "/testing.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class LikeWriteBehindTest {
+    @Autowired
+    private FilmController filmController;
+    @Autowired
+    private LikeWriteBuffer likeWriteBuffer;
+    @Autowired
+    private PopularityLeaderboard leaderboard;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private QueryCounter queryCounter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rebuildKeepsBufferedLikes() {
+        leaderboard.rebuild();
+
+        filmController.addLike(5, 1);
+        filmController.addLike(5, 2);
+        filmController.addLike(5, 3);
+        assertEquals(3, likeWriteBuffer.pendingCount());
+        assertEquals(List.of(1, 5, 3), leaderboard.top(3));
+
+        leaderboard.rebuild();
+
+        assertEquals(0, likeWriteBuffer.pendingCount());
+        assertEquals(List.of(1, 5, 3), leaderboard.top(3));
+        assertEquals(Set.of(1, 2, 3, 5), filmStorage.findById(5).getLikes());
+    }
+
+    @Test
+    void bufferedLikeIsResolvedWithoutQueryingDatabase() {
+        assertTrue(likeWriteBuffer.like(5, 1));
+
+        queryCounter.reset();
+        assertFalse(likeWriteBuffer.like(5, 1));
+        assertTrue(likeWriteBuffer.unlike(5, 1));
+
+        assertEquals(0, queryCounter.count());
+        assertTrue(likeWriteBuffer.flushNow());
+    }
+
+    @Test
+    void rejectedLikeIsDroppedWithoutBlockingTheBatch() {
+        assertTrue(likeWriteBuffer.like(5, 1));
+        assertTrue(likeWriteBuffer.like(4, 2));
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = 2");
+        long dropped = likeWriteBuffer.droppedCount();
+
+        assertTrue(likeWriteBuffer.flushNow());
+
+        assertEquals(0, likeWriteBuffer.pendingCount());
+        assertEquals(dropped + 1, likeWriteBuffer.droppedCount());
+        assertTrue(filmStorage.findById(5).getLikes().contains(1));
+        assertFalse(filmStorage.findById(4).getLikes().contains(2));
+    }
+
+    @Test
+    @DirtiesContext
+    void bufferedLikesAreCoalescedBoundedAndDrainedOnShutdown() throws InterruptedException {
+        leaderboard.rebuild();
+
+        filmController.addLike(5, 1);
+        filmController.addLike(5, 1);
+        filmController.addLike(5, 2);
+        filmController.removeLike(5, 5);
+        filmController.removeLike(5, 5);
+        filmController.addLike(5, 3);
+
+        assertEquals(4, likeWriteBuffer.pendingCount());
+        assertEquals(List.of(1, 3, 5), leaderboard.top(3));
+        assertEquals(Set.of(5), filmStorage.findById(5).getLikes());
+
+        assertThrows(ServiceOverloadedException.class, () -> filmController.addLike(5, 4));
+        filmController.removeLike(5, 1);
+        assertEquals(4, likeWriteBuffer.pendingCount());
+
+        likeWriteBuffer.stop();
+
+        assertEquals(0, likeWriteBuffer.pendingCount());
+        assertEquals(Set.of(2, 3), filmStorage.findById(5).getLikes());
+        assertEquals(0, filmStorage.reconcileLikeCounts());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class MetricsEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void countsMappedErrors() throws Exception {
+        double before = errors("DoesNotExistsException", "404");
+
+        mockMvc.perform(get("/films/100000")).andExpect(status().isNotFound());
+
+        assertEquals(before + 1, errors("DoesNotExistsException", "404"));
+    }
+
+    @Test
+    void exposesLatencyTimersToPrometheus() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "10")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("filmorate_service_seconds_count{method=\"findPage\",service=\"FilmService\""),
+                "Нет таймера сервиса");
+        assertTrue(scrape.contains("filmorate_storage_seconds_count{method=\"findPage\""),
+                "Нет таймера хранилища");
+        assertTrue(scrape.contains("filmorate_storage_seconds_bucket{"), "Нет гистограммы хранилища");
+    }
+
+    private double errors(String exception, String status) {
+        Counter counter = meterRegistry.find("filmorate.errors")
+                .tag("exception", exception)
+                .tag("status", status)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.yandex.practicum.filmorate.exception.QueryLimitExceededException;
+import ru.yandex.practicum.filmorate.model.IntSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.statistics.QueryStatisticsRegistry;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
+@JdbcTest
+@ComponentScan("ru.yandex.practicum.filmorate")
+@TestPropertySource(properties = {
+        "filmorate.sql.statistics.statement-threshold=1",
+        "filmorate.sql.statistics.headers=true"
+})
+@Sql(value = "/clear.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(value = {"/schema.sql", "/data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class QueryStatisticsTest {
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private QueryStatisticsRegistry registry;
+
+    @BeforeEach
+    void createUsers() {
+        for (int i = 1; i <= 3; i++) {
+            userController.createUser(new User(0, "user" + i + "@mail.ru", "user" + i, "User " + i,
+                    LocalDate.of(2000, 1, 1), new IntSet()));
+        }
+    }
+
+    @Test
+    void countsStatementsAndRowsPerControllerMethod() {
+        QueryStatisticsRegistry.Snapshot before = snapshot("UserController.findAll");
+        userController.findAll();
+
+        QueryStatisticsRegistry.Snapshot findAll = snapshot("UserController.findAll");
+        assertEquals(1, findAll.getCalls() - before.getCalls());
+        assertEquals(1, findAll.getStatements() - before.getStatements(),
+                "Список пользователей должен читаться одним запросом");
+        assertEquals(3, findAll.getRows() - before.getRows());
+        assertTrue(findAll.getNanos() > before.getNanos());
+        assertTrue(snapshot("UserController.createUser").getCalls() >= 3);
+    }
+
+    @Test
+    void writesStatisticsHeaders() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(),
+                response));
+        try {
+            userController.findAll();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertEquals("1", response.getHeader("X-Sql-Statements"));
+        assertEquals("3", response.getHeader("X-Sql-Rows"));
+        assertNotNull(response.getHeader("X-Sql-Time-Ms"));
+    }
+
+    @Test
+    void failsWhenEndpointExceedsStatementThreshold() {
+        assertThrows(QueryLimitExceededException.class, () -> userController.addFriend(1, 2),
+                "Добавление друга выполняет больше одного запроса и должно превысить порог");
+    }
+
+    private QueryStatisticsRegistry.Snapshot snapshot(String endpoint) {
+        return registry.snapshot().getOrDefault(endpoint, new QueryStatisticsRegistry.Snapshot(0, 0, 0, 0, 0));
+    }
+}
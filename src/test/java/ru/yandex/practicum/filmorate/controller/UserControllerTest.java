@@ -4,23 +4,27 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import ru.yandex.practicum.filmorate.dao.Impl.UserDbStorage;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.exception.DoesNotExistsException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.IntSet;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @AutoConfigureTestDatabase
+@AutoConfigureJson
+@ActiveProfiles("test")
 @JdbcTest
 @ComponentScan("ru.yandex.practicum.filmorate")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -42,7 +46,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         assertEquals(user, userController.createUser(user));
@@ -53,7 +57,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         assertEquals(1, userController.findAll().size(), "Неверное количество пользователей");
@@ -69,7 +73,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
         User user2 = new User(
                 0,
@@ -77,7 +81,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
         User user3 = new User(
                 0,
@@ -85,7 +89,7 @@ public class UserControllerTest {
                 null,
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
         User user4 = new User(
                 0,
@@ -93,7 +97,7 @@ public class UserControllerTest {
                 "testUser Login",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         User user5 = new User(
@@ -102,7 +106,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2222, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         assertThrows(ValidationException.class, () -> userController.createUser(user1), "Должен выбросить исключение");
@@ -120,7 +124,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         userController.createUser(updatable);
@@ -131,7 +135,7 @@ public class UserControllerTest {
                 "nonUpdatabletestUserLogin",
                 "nonUpdatableFoo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         assertThrows(DoesNotExistsException.class, () -> userController.updateUser(nonUpdatable), "Должен выбросить исключение");
@@ -142,7 +146,7 @@ public class UserControllerTest {
                 "updatedUserLogin",
                 "updatedFoo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
         updatedUser.setId(updatable.getId());
 
@@ -164,7 +168,7 @@ public class UserControllerTest {
                 "testUserLogin",
                 "Foo Bar",
                 LocalDate.of(2000, 1, 1),
-                new HashSet<>()
+                new IntSet()
         );
 
         userController.createUser(user);
@@ -172,4 +176,50 @@ public class UserControllerTest {
         assertEquals(1, userController.findAll().size(), "Неверный размер списка пользователей");
         assertEquals(user, userController.findAll().get(0), "Сохранен не тот пользователь");
     }
+
+    @Test
+    void addFriendValidationTest() {
+        User user = new User(
+                0,
+                "test@testmail.test",
+                "testUserLogin",
+                "Foo Bar",
+                LocalDate.of(2000, 1, 1),
+                new IntSet()
+        );
+        userController.createUser(user);
+
+        assertThrows(DoesNotExistsException.class, () -> userController.addFriend(user.getId(), 42),
+                "Должен выбросить исключение");
+        assertThrows(DoesNotExistsException.class, () -> userController.removeFriend(42, user.getId()),
+                "Должен выбросить исключение");
+    }
+
+    @Test
+    void findMutualFriendsOfUnknownUserTest() {
+        User user = new User(
+                0,
+                "test@testmail.test",
+                "testUserLogin",
+                "Foo Bar",
+                LocalDate.of(2000, 1, 1),
+                new IntSet()
+        );
+        User other = new User(
+                0,
+                "other@testmail.test",
+                "otherUserLogin",
+                "Bar Foo",
+                LocalDate.of(2000, 1, 1),
+                new IntSet()
+        );
+        userController.createUser(user);
+        userController.createUser(other);
+
+        assertEquals(List.of(), userController.findMutualFriends(user.getId(), other.getId()));
+        assertThrows(DoesNotExistsException.class, () -> userController.findMutualFriends(user.getId(), 42),
+                "Должен выбросить исключение");
+        assertThrows(DoesNotExistsException.class, () -> userController.findMutualFriends(42, user.getId()),
+                "Должен выбросить исключение");
+    }
 }
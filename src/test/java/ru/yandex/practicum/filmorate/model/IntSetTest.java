@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntSetTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    public void testSetOperations() {
+        IntSet set = new IntSet();
+
+        assertThat(set.add(5)).isTrue();
+        assertThat(set.add(1)).isTrue();
+        assertThat(set.add(3)).isTrue();
+        assertThat(set.add(3)).isFalse();
+        assertThat(set.remove(1)).isTrue();
+        assertThat(set.remove(1)).isFalse();
+
+        assertThat(set).containsExactly(3, 5);
+        assertThat(set.contains(5)).isTrue();
+        assertThat(set.contains((Object) "5")).isFalse();
+        assertThat(set).isEqualTo(Set.of(3, 5));
+        assertThat(new IntSet(Set.of(9, 2, 4))).containsExactly(2, 4, 9);
+    }
+
+    @Test
+    public void testIntersect() {
+        IntSet large = new IntSet();
+        for (int i = 0; i < 1000; i += 2) {
+            large.add(i);
+        }
+
+        assertThat(IntSet.of(1, 2, 3, 4).intersect(IntSet.of(4, 3, 8))).containsExactly(3, 4);
+        assertThat(IntSet.of(3, 500, 998, 999, 1001).intersect(large)).containsExactly(500, 998);
+        assertThat(large.intersect(new IntSet())).isEmpty();
+    }
+
+    @Test
+    public void testJsonContract() throws Exception {
+        User user = new User(1, "user@mail.ru", "login", "name", null, IntSet.of(7, 3, 5));
+
+        String json = objectMapper.writeValueAsString(user);
+        assertThat(json).contains("\"friends\":[3,5,7]");
+
+        User read = objectMapper.readValue("{\"id\":1,\"friends\":[7,\"3\",5,5]}", User.class);
+        assertThat(read.getFriends()).containsExactly(3, 5, 7);
+        assertThat(objectMapper.readValue("{\"id\":1}", User.class).getFriends()).isNull();
+        assertThat(objectMapper.readValue("{\"id\":1,\"friends\":null}", User.class).getFriends()).isNull();
+    }
+}